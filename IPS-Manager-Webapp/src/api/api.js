@@ -568,11 +568,14 @@ export async function getDeliveryPhotos(assignmentId) {
 
 /**
  * Fetch a photo as an authenticated blob URL (needed because <img> can't send JWT headers)
+ * @param {number} photoId
+ * @param {"thumb"|"medium"|undefined} size  downscaled variant; omit for the original
  */
-export async function getPhotoBlob(photoId) {
+export async function getPhotoBlob(photoId, size) {
   const token =
     localStorage.getItem("token") || sessionStorage.getItem("token");
-  const res = await fetch(`${API_BASE}/photos/view/${photoId}`, {
+  const query = size ? `?size=${size}` : "";
+  const res = await fetch(`${API_BASE}/photos/view/${photoId}${query}`, {
     headers: token ? { Authorization: `Bearer ${token}` } : {},
   });
   if (!res.ok) throw new Error(`Photo load failed: ${res.status}`);
@@ -48,7 +48,7 @@ const AdminPage = () => {
   const { t } = useTranslation();
   const showToast = useToast();
   const [confirmModal, setConfirmModal] = useState(null); // { message, onConfirm }
-  const [photoModal, setPhotoModal] = useState(null); // { blobUrl, fileName }
+  const [photoModal, setPhotoModal] = useState(null); // { blobUrl, fileName, ownsBlobUrl }
   const [projects, setProjects] = useState([]);
   const [deliveries, setDeliveries] = useState([]);
   const [requests, setRequests] = useState([]);
@@ -76,6 +76,7 @@ const AdminPage = () => {
   const projectExcelInputRef = useRef(null);
   const [deliveryPhotos, setDeliveryPhotos] = useState({}); // { [deliveryId]: blobUrl | null }
   const loadedDeliveryPhotosRef = useRef(new Set());
+  const deliveryPhotoIdsRef = useRef({});
 
   // Tab navigation
   const [activeTab, setActiveTab] = useState("projects");
@@ -862,7 +863,8 @@ const AdminPage = () => {
         try {
           const photos = await getDeliveryPhotos(d.id);
           if (photos && photos.length > 0) {
-            const blobUrl = await getPhotoBlob(photos[0].id);
+            deliveryPhotoIdsRef.current[d.id] = photos[0].id;
+            const blobUrl = await getPhotoBlob(photos[0].id, "thumb");
             setDeliveryPhotos((prev) => ({ ...prev, [d.id]: blobUrl }));
           }
         } catch {
@@ -871,6 +873,23 @@ const AdminPage = () => {
       });
   }, [deliveries]);
 
+  // Grid shows the thumbnail; the lightbox loads the full-size original on demand
+  const openPhotoModal = async (deliveryId) => {
+    const photoId = deliveryPhotoIdsRef.current[deliveryId];
+    const fileName = `delivery_${deliveryId}.jpg`;
+    try {
+      const blobUrl = await getPhotoBlob(photoId);
+      setPhotoModal({ blobUrl, fileName, ownsBlobUrl: true });
+    } catch {
+      setPhotoModal({ blobUrl: deliveryPhotos[deliveryId], fileName });
+    }
+  };
+
+  const closePhotoModal = () => {
+    if (photoModal?.ownsBlobUrl) URL.revokeObjectURL(photoModal.blobUrl);
+    setPhotoModal(null);
+  };
+
   const handleDeleteDelivery = async (deliveryId) => {
     try {
       await deleteDelivery(deliveryId);
@@ -1871,7 +1890,7 @@ const AdminPage = () => {
                                                       alt="Delivery confirmation"
                                                       className="delivery-confirmation-photo"
                                                       title="Click to zoom"
-                                                      onClick={() => setPhotoModal({ blobUrl: deliveryPhotos[delivery.id], fileName: `delivery_${delivery.id}.jpg` })}
+                                                      onClick={() => openPhotoModal(delivery.id)}
                                                     />
                                                   )}
                                                   {!deliveryPhotos[delivery.id] && loadedDeliveryPhotosRef.current.has(delivery.id) && (
@@ -2853,10 +2872,10 @@ const AdminPage = () => {
       {photoModal && (
         <div
           className="photo-lightbox-overlay"
-          onClick={() => setPhotoModal(null)}
+          onClick={closePhotoModal}
         >
           <div className="photo-lightbox-box" onClick={(e) => e.stopPropagation()}>
-            <button className="photo-lightbox-close" onClick={() => setPhotoModal(null)}>×</button>
+            <button className="photo-lightbox-close" onClick={closePhotoModal}>×</button>
             <img src={photoModal.blobUrl} alt="Delivery confirmation" className="photo-lightbox-img" />
             <a
               href={photoModal.blobUrl}
@@ -0,0 +1,14 @@
+package com.IPS.IPS_Manager.Config;
+
+import java.lang.annotation.*;
+
+/**
+ * Injects the authenticated caller into a controller method, taken from the principal
+ * JwtFilter already loaded (no users query). Supported parameter types:
+ * {@link com.IPS.IPS_Manager.DTO.AuthenticatedUser} and {@link com.IPS.IPS_Manager.Entity.Users}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
@@ -31,6 +31,14 @@ import java.util.Enumeration;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Browser origins allowed for REST (CORS) and the /ws STOMP endpoint
+    static final java.util.List<String> ALLOWED_ORIGIN_PATTERNS = java.util.List.of(
+            "http://185.221.*.*",
+            "http://localhost:*",
+            "https://ipsmanager.ge",
+            "https://www.ipsmanager.ge"
+    );
+
     @Autowired
     private UserDetailsService userDetailsService;
 
@@ -53,7 +61,9 @@ public class SecurityConfig {
                                 "/auth/registerAll",
                                 "/auth/login",
                                 "/auth/forgot-password",
-                                "/auth/reset-password"
+                                "/auth/reset-password",
+                                "/error", // so 429/503 from the login pool reach the client as-is
+                                "/ws/**" // STOMP authenticates the CONNECT frame (StompAuthInterceptor)
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -69,14 +79,10 @@ public class SecurityConfig {
     public org.springframework.web.cors.CorsConfigurationSource corsConfigurationSource() {
         org.springframework.web.cors.CorsConfiguration configuration = new org.springframework.web.cors.CorsConfiguration();
 
-        configuration.setAllowedOriginPatterns(java.util.List.of(
-                "http://185.221.*.*",
-                "http://localhost:*",
-                "https://ipsmanager.ge",
-                "https://www.ipsmanager.ge"
-        ));
+        configuration.setAllowedOriginPatterns(ALLOWED_ORIGIN_PATTERNS);
         configuration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(java.util.List.of("*"));
+        configuration.setExposedHeaders(java.util.List.of("X-Next-Cursor"));
         configuration.setAllowCredentials(true);
 
         org.springframework.web.cors.UrlBasedCorsConfigurationSource source = new org.springframework.web.cors.UrlBasedCorsConfigurationSource();
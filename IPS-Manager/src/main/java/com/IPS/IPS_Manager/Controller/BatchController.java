@@ -1,21 +1,19 @@
 package com.IPS.IPS_Manager.Controller;
 
+import com.IPS.IPS_Manager.DTO.BatchKey;
+import com.IPS.IPS_Manager.DTO.BatchRowDTO;
 import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
-import com.IPS.IPS_Manager.Entity.DeliveryPhoto;
-import com.IPS.IPS_Manager.Entity.MaterialRequest;
-import com.IPS.IPS_Manager.Entity.Users;
-import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
-import com.IPS.IPS_Manager.Repository.DeliveryPhotoRepo;
-import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
-import com.IPS.IPS_Manager.Repository.UserRepo;
+import com.IPS.IPS_Manager.Service.BatchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,9 +27,7 @@ public class BatchController {
 
     @Autowired
     private DeliveryAssignmentRepo assignmentRepo;
-    @Autowired private MaterialRequestRepo requestRepo;
-    @Autowired private UserRepo userRepo;
-    @Autowired private DeliveryPhotoRepo photoRepo;
+    @Autowired private BatchService batchService;
 
     @SuppressWarnings("unchecked")
     @PostMapping
@@ -39,32 +35,22 @@ public class BatchController {
         String batchId = UUID.randomUUID().toString();
 
         List<Map<String, Object>> materials = (List<Map<String, Object>>) payload.get("materials");
-        String projectName = null;
 
+        List<BatchService.BatchLine> lines = new ArrayList<>();
         for (Map<String, Object> mat : materials) {
             // 1. Extract as a wildcard List instead of forcing Integer
             List<?> rawIds = (List<?>) mat.get("requestIds");
             if (rawIds == null || rawIds.isEmpty()) continue;
 
-// 2. Convert to string first, then safely parse into a Long (matches requestRepo.findById)
+// 2. Convert to string first, then safely parse into a Long (matches MaterialRequest ids)
             Long requestId = Long.valueOf(rawIds.get(0).toString());
-
-            MaterialRequest request = requestRepo.findById(requestId)
-                    .orElseThrow(() -> new RuntimeException("Request not found: " + requestId));
-
-            if (projectName == null) projectName = request.getProject().getName();
-
-            DeliveryAssignment assignment = new DeliveryAssignment();
-            assignment.setMaterialRequest(request);
-            assignment.setDriver(null);
-            assignment.setAssignedQuantity(Integer.parseInt(mat.get("quantity").toString()));
-            assignment.setDeliveryDate(null);
-            assignment.setStatus(MaterialRequestStatus.PENDING);
-            assignment.setBatchId(batchId);
-
-            assignmentRepo.save(assignment);
+            lines.add(new BatchService.BatchLine(requestId, Integer.parseInt(mat.get("quantity").toString())));
         }
 
+        List<DeliveryAssignment> created = batchService.createBatch(batchId, lines);
+        String projectName = created.isEmpty()
+                ? null : created.get(0).getMaterialRequest().getProject().getName();
+
         return ResponseEntity.ok(Map.of(
                 "id", batchId,
                 "projectName", projectName != null ? projectName : "",
@@ -78,36 +64,55 @@ public class BatchController {
         ));
     }
 
+    /**
+     * Batch queue, oldest first. Optional filters: projectId, status (PENDING / ASSIGNED);
+     * keyset paging with ?after=<cursor>&limit=<n> (see KeysetPaging).
+     * Two queries per call regardless of batch count: the batch keys, then their flattened rows.
+     */
+    @SuppressWarnings("unchecked")
     @GetMapping
-    public ResponseEntity<?> getAllBatches() {
-        Map<String, List<DeliveryAssignment>> grouped = assignmentRepo.findByBatchIdIsNotNull()
-                .stream()
-                .collect(Collectors.groupingBy(DeliveryAssignment::getBatchId));
-
-        List<Map<String, Object>> result = grouped.entrySet().stream().map(entry -> {
-            List<DeliveryAssignment> list = entry.getValue();
-            DeliveryAssignment first = list.get(0);
-            boolean assigned = first.getDriver() != null;
-
-            Map<String, Object> dto = new LinkedHashMap<>();
-            dto.put("id", entry.getKey());
-            dto.put("projectId", first.getMaterialRequest().getProject().getId());
-            dto.put("projectName", first.getMaterialRequest().getProject().getName());
-            dto.put("status", assigned ? "ASSIGNED" : "PENDING");
-            dto.put("createdAt", null);
-            dto.put("deliveryDate", first.getDeliveryDate());
-            dto.put("driver", assigned
-                    ? Map.of("id", first.getDriver().getId(), "name", first.getDriver().getName())
-                    : null);
-            dto.put("materials", list.stream().map(a -> Map.of(
-                    "materialName", a.getMaterialRequest().getMaterial().getName(),
-                    "unit",         a.getMaterialRequest().getMaterial().getUnit(),
-                    "quantity",     a.getAssignedQuantity()
-            )).collect(Collectors.toList()));
-            return dto;
-        }).collect(Collectors.toList());
-
-        return ResponseEntity.ok(result);
+    public ResponseEntity<?> getAllBatches(
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+
+        String statusFilter = status != null && !status.isBlank() ? status.trim().toUpperCase() : null;
+        List<BatchKey> keys = assignmentRepo.findBatchKeys(projectId, statusFilter, after, KeysetPaging.limit(limit));
+        // The cursor is the first assignment id of the last batch, which the response rows do not carry
+        HttpHeaders paging = KeysetPaging.page(keys, limit, BatchKey::firstAssignmentId).getHeaders();
+        if (keys.isEmpty()) return ResponseEntity.ok(List.of());
+
+        // Rows arrive ordered by batch, so each batch is assembled in a single pass
+        Map<String, Map<String, Object>> batches = new LinkedHashMap<>();
+        List<String> batchIds = keys.stream().map(BatchKey::batchId).toList();
+        batchIds.forEach(id -> batches.put(id, null));
+
+        for (BatchRowDTO row : assignmentRepo.findBatchRows(batchIds)) {
+            Map<String, Object> dto = batches.get(row.getBatchId());
+            if (dto == null) {
+                boolean assigned = row.getDriverId() != null;
+                dto = new LinkedHashMap<>();
+                dto.put("id", row.getBatchId());
+                dto.put("projectId", row.getProjectId());
+                dto.put("projectName", row.getProjectName());
+                dto.put("status", assigned ? "ASSIGNED" : "PENDING");
+                dto.put("createdAt", null);
+                dto.put("deliveryDate", row.getDeliveryDate());
+                dto.put("driver", assigned
+                        ? Map.of("id", row.getDriverId(), "name", row.getDriverName())
+                        : null);
+                dto.put("materials", new ArrayList<Map<String, Object>>());
+                batches.put(row.getBatchId(), dto);
+            }
+            ((List<Map<String, Object>>) dto.get("materials")).add(Map.of(
+                    "materialName", row.getMaterialName(),
+                    "unit",         row.getUnit(),
+                    "quantity",     row.getQuantity()
+            ));
+        }
+
+        return ResponseEntity.ok().headers(paging).body(new ArrayList<>(batches.values()));
     }
 
     @PutMapping("/{batchId}/assign")
@@ -120,29 +125,13 @@ public class BatchController {
                 ? payload.get("deliveryDate").toString() : null;
         LocalDate date = dateStr != null ? LocalDate.parse(dateStr) : null;
 
-        Users driver = userRepo.findById(driverId)
-                .orElseThrow(() -> new RuntimeException("Driver not found"));
-
-        List<DeliveryAssignment> assignments = assignmentRepo.findByBatchId(batchId);
-        if (assignments.isEmpty()) return ResponseEntity.notFound().build();
-
-        for (DeliveryAssignment a : assignments) {
-            a.setDriver(driver);
-            a.setDeliveryDate(date);
-            a.setBatchId(null); // ← clear grouping, batch disappears from queue
-            assignmentRepo.save(a);
-        }
+        if (!batchService.assignBatch(batchId, driverId, date)) return ResponseEntity.notFound().build();
 
         return ResponseEntity.ok(Map.of("batchId", batchId, "status", "ASSIGNED"));
     }
     @DeleteMapping("/{batchId}")
     public ResponseEntity<Void> deleteBatch(@PathVariable String batchId) {
-        List<DeliveryAssignment> assignments = assignmentRepo.findByBatchId(batchId);
-        for (DeliveryAssignment a : assignments) {
-            List<DeliveryPhoto> photos = photoRepo.findByDeliveryAssignmentId(a.getId());
-            if (!photos.isEmpty()) photoRepo.deleteAll(photos);
-            assignmentRepo.delete(a);
-        }
+        batchService.deleteBatch(batchId);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
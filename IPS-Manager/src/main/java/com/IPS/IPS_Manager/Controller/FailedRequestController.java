@@ -1,10 +1,15 @@
 package com.IPS.IPS_Manager.Controller;
 
 import com.IPS.IPS_Manager.Entity.FailedRequest;
+import com.IPS.IPS_Manager.Enum.FailedRequestType;
 import com.IPS.IPS_Manager.Service.FailedRequestService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,8 +27,31 @@ public class FailedRequestController {
         return ResponseEntity.ok(failedRequestService.create(request));
     }
 
+    // Newest first. Optional filters: type, projectId, driverId, from/to (createdAt, to exclusive);
+    // keyset paging with ?after=<createdAt>_<id>&limit=<n> (see KeysetPaging)
     @GetMapping("/all")
-    public List<FailedRequest> getAll() {
-        return failedRequestService.getAll();
+    public ResponseEntity<List<FailedRequest>> getAll(
+            @RequestParam(required = false) FailedRequestType type,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) Long driverId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        LocalDateTime afterCreatedAt = null;
+        Long afterId = null;
+        if (after != null) {
+            int split = after.lastIndexOf('_');
+            try {
+                afterCreatedAt = LocalDateTime.parse(after.substring(0, split));
+                afterId = Long.valueOf(after.substring(split + 1));
+            } catch (RuntimeException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + after);
+            }
+        }
+        return KeysetPaging.page(
+                failedRequestService.search(type, projectId, driverId, from, to, afterCreatedAt, afterId,
+                        KeysetPaging.limit(limit)),
+                limit, f -> f.getCreatedAt() + "_" + f.getId());
     }
 }
@@ -0,0 +1,38 @@
+package com.IPS.IPS_Manager.Controller;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared handling of {@code ?after=<id>&limit=<n>} on list endpoints.
+ * Without {@code limit} an endpoint still returns every (filtered) row, so existing clients keep working.
+ * With it, the response holds at most {@code limit} rows, and when more may follow the
+ * {@code X-Next-Cursor} header carries the value to pass as {@code after} for the next page.
+ */
+final class KeysetPaging {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_LIMIT = 500;
+
+    private KeysetPaging() {
+    }
+
+    static Limit limit(Integer limit) {
+        return limit == null ? Limit.unlimited() : Limit.of(clamp(limit));
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> rows, Integer limit, Function<T, ?> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (limit != null && !rows.isEmpty() && rows.size() >= clamp(limit)) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(cursorOf.apply(rows.get(rows.size() - 1))));
+        }
+        return response.body(rows);
+    }
+
+    private static int clamp(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+}
@@ -2,6 +2,7 @@ package com.IPS.IPS_Manager.Controller;
 
 import com.IPS.IPS_Manager.Entity.Material;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
+import com.IPS.IPS_Manager.Service.LiveUpdatePublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,14 +13,19 @@ import java.util.List;
 public class MaterialController {
 
     private final MaterialRepo materialRepo;
+    private final LiveUpdatePublisher liveUpdatePublisher;
 
-    public MaterialController(MaterialRepo materialRepo) {
+    public MaterialController(MaterialRepo materialRepo, LiveUpdatePublisher liveUpdatePublisher) {
         this.materialRepo = materialRepo;
+        this.liveUpdatePublisher = liveUpdatePublisher;
     }
 
+    // Keyset paging by material code: ?after=<code>&limit=<n> (see KeysetPaging)
     @GetMapping("/all")
-    public List<Material> getAllMaterials(){
-        return materialRepo.findAll();
+    public ResponseEntity<List<Material>> getAllMaterials(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit){
+        return KeysetPaging.page(materialRepo.findPage(after, KeysetPaging.limit(limit)), limit, Material::getId);
     }
 
     @GetMapping("/{Id}")
@@ -56,7 +62,9 @@ public class MaterialController {
                     existing.setUnit(updatedMaterial.getUnit());
                     // uncomment if your Material entity has a quantity field:
                     existing.setQuantity(updatedMaterial.getQuantity());
-                    return ResponseEntity.ok(materialRepo.save(existing));
+                    Material saved = materialRepo.save(existing);
+                    liveUpdatePublisher.materialStockChanged(id);
+                    return ResponseEntity.ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -1,21 +1,25 @@
 package com.IPS.IPS_Manager.Controller;
 
+import com.IPS.IPS_Manager.Config.CurrentUser;
 import com.IPS.IPS_Manager.DTO.AssignRequestDTO;
+import com.IPS.IPS_Manager.DTO.AuthenticatedUser;
 import com.IPS.IPS_Manager.DTO.CreateRequestDTO;
+import com.IPS.IPS_Manager.DTO.DeliveryAssignmentView;
+import com.IPS.IPS_Manager.DTO.MaterialRequestView;
 import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
 import com.IPS.IPS_Manager.Entity.MaterialRequest;
 import com.IPS.IPS_Manager.Entity.Users;
-import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
-import com.IPS.IPS_Manager.Repository.UserRepo;
+import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import com.IPS.IPS_Manager.Service.DeliveryAssignmentService;
 import com.IPS.IPS_Manager.Service.MaterialRequestService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
+import java.time.LocalDate;
 import java.util.List;
 
     @RestController
@@ -26,16 +30,23 @@ import java.util.List;
         @Autowired
         private  MaterialRequestService requestService;
         @Autowired
-        private MaterialRequestRepo requestRepo;
-        @Autowired
         private  DeliveryAssignmentService assignmentService;
-        @Autowired
-        private  UserRepo userRepo;
 
 
+        // Optional filters: status, projectId, driverId, from/to (delivery date);
+        // keyset paging with ?after=<id>&limit=<n> (see KeysetPaging)
         @GetMapping("/all")
-        public List<DeliveryAssignment> getAllDeliveries() {
-            return assignmentService.getAllAssignment();
+        public ResponseEntity<List<DeliveryAssignmentView>> getAllDeliveries(
+                @RequestParam(required = false) MaterialRequestStatus status,
+                @RequestParam(required = false) Long projectId,
+                @RequestParam(required = false) Long driverId,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(required = false) Long after,
+                @RequestParam(required = false) Integer limit) {
+            return KeysetPaging.page(
+                    assignmentService.searchAssignments(status, projectId, driverId, from, to, after, KeysetPaging.limit(limit)),
+                    limit, DeliveryAssignmentView::id);
         }
 
 
@@ -49,14 +60,9 @@ import java.util.List;
 
         // 🔹 Worker creates request
         @PostMapping("/request")
-        public ResponseEntity<?> createRequest(@RequestBody CreateRequestDTO dto, Principal principal) {
+        public ResponseEntity<?> createRequest(@RequestBody CreateRequestDTO dto, @CurrentUser Users user) {
             try {
-                // ✅ Get logged-in user from JWT token
-                String email = principal.getName();
-                Users user = userRepo.findByMail(email)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
-
-                // ✅ Pass user to service
+                // ✅ Pass logged-in user (from the JWT principal) to service
                 MaterialRequest req = requestService.createRequest(
                         dto.getProjectId(),
                         dto.getMaterialId(),
@@ -71,14 +77,10 @@ import java.util.List;
 
         @GetMapping("/my-project-requests")
         @PreAuthorize("hasRole('project_manager')")
-        public ResponseEntity<?> getMyProjectRequests(Principal principal) {
+        public ResponseEntity<?> getMyProjectRequests(@CurrentUser AuthenticatedUser user) {
             try {
-                String email = principal.getName();
-                Users user = userRepo.findByMail(email)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
-
                 // Get all requests where the project's manager is this user
-                List<MaterialRequest> requests = requestRepo.findByProject_ProjectManager_Id(user.getId());
+                List<MaterialRequestView> requests = requestService.getRequestsByProjectManagerId(user.id());
                 return ResponseEntity.ok(requests);
             } catch (Exception e) {
                 return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -119,9 +121,20 @@ import java.util.List;
         }
 
         // 🔹 List ALL pending requests
+        // Optional filters: projectId, driverId, from/to (request date);
+        // keyset paging with ?after=<id>&limit=<n> (see KeysetPaging)
         @GetMapping("/pending")
-        public ResponseEntity<?> getAllPendingRequests() {
-            return ResponseEntity.ok(requestService.getAllPendingRequests());
+        public ResponseEntity<List<MaterialRequestView>> getAllPendingRequests(
+                @RequestParam(required = false) Long projectId,
+                @RequestParam(required = false) Long driverId,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                @RequestParam(required = false) Long after,
+                @RequestParam(required = false) Integer limit) {
+            return KeysetPaging.page(
+                    requestService.searchRequests(MaterialRequestStatus.PENDING, projectId, driverId, from, to,
+                            after, KeysetPaging.limit(limit)),
+                    limit, MaterialRequestView::id);
         }
 
         // 🔹 List ALL requests for a specific project
@@ -1,12 +1,15 @@
 package com.IPS.IPS_Manager.Controller;
 
-import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
+import com.IPS.IPS_Manager.DTO.DeliveryPhotoMetadata;
 import com.IPS.IPS_Manager.Entity.DeliveryPhoto;
-import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
+import com.IPS.IPS_Manager.Enum.PhotoSize;
 import com.IPS.IPS_Manager.Repository.DeliveryPhotoRepo;
+import com.IPS.IPS_Manager.Service.DeliveryPhotoService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +18,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/photos")
@@ -22,11 +26,14 @@ import java.util.Map;
 @Slf4j
 public class PhotoUploadController {
 
+    // Private: photos sit behind JWT auth, so shared caches must not keep them
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable();
+
     private final DeliveryPhotoRepo photoRepo;
-    private final DeliveryAssignmentRepo assignmentRepo;
+    private final DeliveryPhotoService photoService;
 
     /**
-     * Upload photo directly into PostgreSQL as a BLOB byte array
+     * Upload photo: the bytes are streamed to the photo store, only metadata goes to PostgreSQL
      */
     @PostMapping("/upload/delivery/{assignmentId}")
     public ResponseEntity<?> uploadDeliveryPhoto(
@@ -38,59 +45,90 @@ public class PhotoUploadController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Please select a file to upload"));
             }
 
-            DeliveryAssignment assignment = assignmentRepo.findById(assignmentId)
-                    .orElseThrow(() -> new RuntimeException("Delivery Assignment not found: " + assignmentId));
-
-            // Convert the uploaded multipart file directly into a raw byte array
-            DeliveryPhoto deliveryPhoto = DeliveryPhoto.builder()
-                    .fileName(file.getOriginalFilename())
-                    .fileType(file.getContentType())
-                    .data(file.getBytes()) // Direct database storage conversion
-                    .deliveryAssignment(assignment)
-                    .build();
-
-            photoRepo.save(deliveryPhoto);
-            log.info("📸 Photo saved directly into database for assignment ID: {}", assignmentId);
+            DeliveryPhoto deliveryPhoto = photoService.upload(assignmentId, file);
+            log.info("📸 Photo stored for assignment ID: {}", assignmentId);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "message", "Photo uploaded and saved to DB successfully!",
+                    "message", "Photo uploaded successfully!",
                     "photoId", deliveryPhoto.getId()
             ));
 
         } catch (IOException e) {
-            log.error("❌ Failed to process upload file bytes", e);
+            log.error("❌ Failed to store uploaded photo", e);
             return ResponseEntity.internalServerError().body(Map.of("error", "Upload processing failed: " + e.getMessage()));
         }
     }
 
     /**
-     * Serve the photo from PostgreSQL back to the browser
+     * Serve the photo back to the browser. Returning a Resource lets Spring stream it from disk
+     * and answer Range requests with 206 Partial Content.
+     * Photos never change once uploaded, so the content hash is a strong ETag and browsers may cache
+     * them indefinitely; If-None-Match is answered with 304 from the metadata row alone.
+     * {@code ?size=thumb|medium} serves a downscaled JPEG variant instead of the original.
      */
     @GetMapping("/view/{photoId}")
-    public ResponseEntity<byte[]> viewPhoto(@PathVariable Long photoId) {
-        DeliveryPhoto photo = photoRepo.findById(photoId)
+    public ResponseEntity<?> viewPhoto(
+            @PathVariable Long photoId,
+            @RequestParam(value = "size", required = false) String size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws IOException {
+        PhotoSize photoSize;
+        try {
+            photoSize = PhotoSize.fromParam(size);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        DeliveryPhotoMetadata photo = photoRepo.findMetadataById(photoId)
                 .orElseThrow(() -> new RuntimeException("Photo record not found with ID: " + photoId));
 
-        String contentType = photo.getFileType() != null ? photo.getFileType() : "image/jpeg";
+        // Rows still waiting for the BYTEA migration have no hash yet and are served uncached
+        String etag = null;
+        if (photo.getContentHash() != null) {
+            etag = photoSize == PhotoSize.ORIGINAL
+                    ? "\"" + photo.getContentHash() + "\""
+                    : "\"" + photo.getContentHash() + "-" + photoSize.name().toLowerCase() + "\"";
+        }
+        if (etag != null && matchesEtag(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(IMMUTABLE)
+                    .build();
+        }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + photo.getFileName() + "\"")
-                .body(photo.getData());
+        DeliveryPhotoService.PhotoContent content = photoService.open(photo, photoSize);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(content.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + photo.getFileName() + "\"");
+        if (etag != null) {
+            response.eTag(etag).cacheControl(IMMUTABLE);
+        }
+        return response.body(content.resource());
+    }
+
+    private boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
     }
 
     @GetMapping("/deliveries/{assignmentId}/photos")
     public ResponseEntity<List<Map<String, Object>>> getDeliveryPhotosMetadata(@PathVariable Long assignmentId) {
-        // 🔗 Fetch photos attached to this specific delivery assignment id
-        List<DeliveryPhoto> photos = photoRepo.findByDeliveryAssignmentId(assignmentId);
+        // 🔗 Fetch only the columns we list, never the (legacy) image bytes
+        List<Object[]> photos = photoRepo.findPhotoSummaryByAssignmentId(assignmentId);
 
         // Map them into a clean array of lightweight objects: [{id, fileName, fileType}]
         List<Map<String, Object>> metadataList = photos.stream().map(photo -> {
             Map<String, Object> meta = new java.util.HashMap<>();
-            meta.put("id", photo.getId());
-            meta.put("fileName", photo.getFileName());
-            meta.put("fileType", photo.getFileType());
+            meta.put("id", photo[0]);
+            meta.put("fileName", photo[1]);
+            meta.put("fileType", photo[2]);
+            meta.put("thumbnailUrl", "/photos/view/" + photo[0] + "?size=thumb");
             return meta;
         }).toList();
 
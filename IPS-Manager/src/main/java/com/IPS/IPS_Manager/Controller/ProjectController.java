@@ -1,15 +1,19 @@
 package com.IPS.IPS_Manager.Controller;
 
+import com.IPS.IPS_Manager.Config.CurrentUser;
 import com.IPS.IPS_Manager.DTO.AddMaterialToProjectDTO;
 import com.IPS.IPS_Manager.DTO.AssignProjectManagerDTO;
+import com.IPS.IPS_Manager.DTO.AuthenticatedUser;
+import com.IPS.IPS_Manager.DTO.ProjectMaterialView;
+import com.IPS.IPS_Manager.DTO.ProjectView;
+import com.IPS.IPS_Manager.DTO.RemainingQuotaView;
 import com.IPS.IPS_Manager.DTO.ProjectWithMaterialsRequest;
 import com.IPS.IPS_Manager.DTO.UpdateMaterialQuantityDTO;
 import com.IPS.IPS_Manager.Entity.*;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
 import com.IPS.IPS_Manager.Repository.ProjectMaterialRepo;
-import com.IPS.IPS_Manager.Repository.ProjectRepo;
-import com.IPS.IPS_Manager.Repository.UserRepo;
 import com.IPS.IPS_Manager.Service.ProjectMaterialService;
+import com.IPS.IPS_Manager.Service.ProjectQuotaService;
 import com.IPS.IPS_Manager.Service.ProjectService;
 import com.IPS.IPS_Manager.Service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,7 +21,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,13 +33,10 @@ public class ProjectController {
     private ProjectService projectService;
 
     @Autowired
-    private UserRepo repo;
-
-    @Autowired
-    private ProjectRepo projectRepo;
+    private ProjectMaterialService projectMaterialService;
 
     @Autowired
-    private ProjectMaterialService projectMaterialService;
+    private ProjectQuotaService projectQuotaService;
 
 
     @PostMapping("/add")
@@ -47,16 +47,19 @@ public class ProjectController {
 
     @PostMapping("/addAll")
     public ResponseEntity<List<Project>> createProjects(@RequestBody List<Project> projects){
-        List<Project> saved = projects.stream()
-                .map(projectService::addProject)
-                .toList();
+        List<Project> saved = projectService.addProjects(projects);
         return ResponseEntity.ok(saved);
     }
 
 
+     // Optional: ?managerId=, keyset paging with ?after=<id>&limit=<n> (see KeysetPaging)
      @GetMapping("/all")
-     public ResponseEntity<List<Project>> getProjects() {
-         return ResponseEntity.ok(projectService.getAllProjects());
+     public ResponseEntity<List<ProjectView>> getProjects(
+             @RequestParam(required = false) Long managerId,
+             @RequestParam(required = false) Long after,
+             @RequestParam(required = false) Integer limit) {
+         return KeysetPaging.page(
+                 projectService.getProjects(managerId, after, KeysetPaging.limit(limit)), limit, ProjectView::id);
      }
 
     @PostMapping("/with-materials")
@@ -70,13 +73,19 @@ public class ProjectController {
     @GetMapping("/{projectId}/materials")
     public ResponseEntity<?> getMaterialsByProject(@PathVariable Long projectId) {
         try {
-            List<ProjectMaterial> materials = projectMaterialService.getMaterialsByProject(projectId);
+            List<ProjectMaterialView> materials = projectMaterialService.getMaterialsByProject(projectId);
             return ResponseEntity.ok(materials);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
 
+    // Remaining quota per material, for the request-creation screen
+    @GetMapping("/{projectId}/materials/remaining")
+    public ResponseEntity<List<RemainingQuotaView>> getRemainingQuota(@PathVariable Long projectId) {
+        return ResponseEntity.ok(projectQuotaService.getRemainingQuota(projectId));
+    }
+
     // Add material to existing project
     @PostMapping("/{projectId}/materials/add")
     public ResponseEntity<?> addMaterialToProject(
@@ -155,16 +164,9 @@ public class ProjectController {
 
     @GetMapping("/my-projects")
     @PreAuthorize("hasRole('project_manager')")
-    public ResponseEntity<List<Project>> getMyProjects(Principal principal) {
-        // Get email from JWT token
-        String email = principal.getName();
-
-        // Find the user by email to get their ID
-        Users currentUser = repo.findByMail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Find projects where project_manager_id = currentUser.getId()
-        List<Project> projects = projectRepo.findByProjectManagerId(currentUser.getId());
+    public ResponseEntity<List<ProjectView>> getMyProjects(@CurrentUser AuthenticatedUser currentUser) {
+        // Find projects where project_manager_id = id from the JWT principal
+        List<ProjectView> projects = projectService.getProjectsByManagerId(currentUser.id());
         return ResponseEntity.ok(projects);
     }
 }
\ No newline at end of file
@@ -1,15 +1,14 @@
 package com.IPS.IPS_Manager.Controller;
 
 import org.springframework.beans.factory.annotation.Value;
+import com.IPS.IPS_Manager.Config.CurrentUser;
 import com.IPS.IPS_Manager.DTO.PushSubscriptionDTO;
 import com.IPS.IPS_Manager.Entity.PushSubscription;
 import com.IPS.IPS_Manager.Entity.Users;
-import com.IPS.IPS_Manager.Repository.UserRepo;
 import com.IPS.IPS_Manager.Service.PushNotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -25,7 +24,6 @@ import java.util.Map;
 public class PushNotificationController {
 
     private final PushNotificationService pushService;
-    private final UserRepo userRepo;
 
     @Value("${push.notification.public-key:}")
     private String vapidPublicKey;
@@ -34,9 +32,8 @@ public class PushNotificationController {
      * Subscribe to push notifications
      */
     @PostMapping("/subscribe")
-    public ResponseEntity<?> subscribe(@RequestBody PushSubscriptionDTO dto) {
+    public ResponseEntity<?> subscribe(@RequestBody PushSubscriptionDTO dto, @CurrentUser Users currentUser) {
         try {
-            Users currentUser = getCurrentUser();
 
             // ✅ FIXED: Log user roles via the new collection mapping to prevent compilation failure
             log.info("📥 Received subscription request from user: {} ({})",
@@ -92,9 +89,8 @@ public class PushNotificationController {
      * Test notification endpoint
      */
     @PostMapping("/test")
-    public ResponseEntity<?> testNotification() {
+    public ResponseEntity<?> testNotification(@CurrentUser Users currentUser) {
         try {
-            Users currentUser = getCurrentUser();
 
             log.info("🧪 Test notification requested by: {}", currentUser.getName());
 
@@ -122,18 +118,6 @@ public class PushNotificationController {
         }
     }
 
-    /**
-     * Get current authenticated user
-     */
-    private Users getCurrentUser() {
-        String username = SecurityContextHolder.getContext()
-                .getAuthentication()
-                .getName();
-
-        return userRepo.findByMail(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
-    }
-
     /**
      * Get VAPID public key for push subscription
      */
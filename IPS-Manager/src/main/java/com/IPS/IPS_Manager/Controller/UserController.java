@@ -1,7 +1,9 @@
 package com.IPS.IPS_Manager.Controller;
 
 
+import com.IPS.IPS_Manager.DTO.UserView;
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.Role;
 import com.IPS.IPS_Manager.Repository.UserRepo;
 import com.IPS.IPS_Manager.Service.EmailService;
 import com.IPS.IPS_Manager.Service.MailService;
@@ -13,6 +15,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Map;
@@ -42,7 +45,7 @@ public class UserController {
 
     @PostMapping("/registerAll")
     public List<Users> addUsers(@RequestBody List<Users> users) {
-        return users.stream().map(service::register).toList();
+        return service.registerAll(users);
     }
 
     @PostMapping("/login")
@@ -61,14 +64,20 @@ public class UserController {
         }
     }
 
+    // Optional: ?role=driver, keyset paging with ?after=<id>&limit=<n> (see KeysetPaging)
     @GetMapping("/users")
-    public List<Users> getAllUsers() {
-        return service.getAllUsers();
+    public ResponseEntity<List<UserView>> getAllUsers(
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        Role roleFilter = role == null || role.isBlank() ? null : Role.fromName(role)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown role: " + role));
+        return KeysetPaging.page(service.getUsers(roleFilter, after, KeysetPaging.limit(limit)), limit, UserView::id);
     }
     
     
     @GetMapping("/users/{id}")
-    public Optional<Users> getUserById(@PathVariable Long id){
+    public Optional<UserView> getUserById(@PathVariable Long id){
         return service.getUserById(id);
     }
 
@@ -94,7 +103,7 @@ public class UserController {
     }
 
     @GetMapping("/drivers/all")
-    public ResponseEntity<List<Users>> getAllDrivers() {
+    public ResponseEntity<List<UserView>> getAllDrivers() {
         return ResponseEntity.ok(service.getAllDrivers());
     }
 
@@ -0,0 +1,39 @@
+package com.IPS.IPS_Manager.DTO;
+
+import com.IPS.IPS_Manager.Entity.Users;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the logged-in user, taken when JwtFilter resolved the principal.
+ * Inject it with {@code @CurrentUser AuthenticatedUser user} instead of re-querying users by mail.
+ */
+public record AuthenticatedUser(Long id, String name, String mail, String phone, Set<String> roles) {
+
+    public AuthenticatedUser {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+
+    public static AuthenticatedUser of(Users user) {
+        return new AuthenticatedUser(user.getId(), user.getName(), user.getMail(), user.getPhone(), user.getRoles());
+    }
+
+    public boolean hasRole(String role) {
+        return role != null && roles.contains(role.toLowerCase());
+    }
+
+    /**
+     * A detached Users carrying this snapshot's columns (no password), fine for setting
+     * associations like createdBy and for reading id/name/roles. Don't save it directly.
+     */
+    public Users toUser() {
+        Users user = new Users();
+        user.setId(id);
+        user.setName(name);
+        user.setMail(mail);
+        user.setPhone(phone);
+        user.setRoles(new HashSet<>(roles));
+        return user;
+    }
+}
@@ -0,0 +1,7 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * A batch id and its first (lowest) assignment id, which orders the batch queue and is its keyset cursor.
+ */
+public record BatchKey(String batchId, Long firstAssignmentId) {
+}
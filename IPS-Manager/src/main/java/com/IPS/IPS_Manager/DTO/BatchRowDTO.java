@@ -0,0 +1,24 @@
+package com.IPS.IPS_Manager.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * One delivery assignment of a batch, flattened with its project, material and driver columns
+ * by a single JPQL constructor query.
+ */
+@Data
+@AllArgsConstructor
+public class BatchRowDTO {
+    private String batchId;
+    private Long projectId;
+    private String projectName;
+    private LocalDate deliveryDate;
+    private Long driverId;
+    private String driverName;
+    private String materialName;
+    private String unit;
+    private int quantity;
+}
@@ -0,0 +1,19 @@
+package com.IPS.IPS_Manager.DTO;
+
+import com.IPS.IPS_Manager.Enum.ClusterEventType;
+
+import java.util.List;
+
+/**
+ * A domain event that happened on another node, republished locally as a Spring event.
+ * Handle it with {@code @EventListener} and only touch local state: the originating node
+ * has already done the same for itself.
+ */
+public record ClusterEvent(ClusterEventType type, List<String> keys) {
+
+    /**
+     * Published instead of individual events when some may have been missed (listener reconnected,
+     * or a sequence gap from another node). Listeners should drop everything they cache.
+     */
+    public record Resync(String reason) {}
+}
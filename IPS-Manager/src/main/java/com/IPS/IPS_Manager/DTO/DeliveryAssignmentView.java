@@ -0,0 +1,34 @@
+package com.IPS.IPS_Manager.DTO;
+
+import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Delivery assignment with its request nested the same way the entity serialized it.
+ */
+public record DeliveryAssignmentView(Long id, MaterialRequestView materialRequest, UserSummary driver,
+                                     int assignedQuantity, LocalDate deliveryDate,
+                                     MaterialRequestStatus status, String batchId) {
+
+    // JPQL constructor, see DeliveryAssignmentRepo.VIEW
+    public DeliveryAssignmentView(Long id, Long driverId, String driverName,
+                                  int assignedQuantity, LocalDate deliveryDate,
+                                  MaterialRequestStatus status, String batchId,
+                                  Long requestId,
+                                  Long projectId, String projectCode, String projectName, String projectAddress,
+                                  String materialId, String materialName, String unit,
+                                  int requestedQuantity, int requestAssignedQuantity,
+                                  Long requestDriverId, String requestDriverName,
+                                  Long createdById, String createdByName,
+                                  LocalDate requestDate, LocalDate requestDeliveryDate,
+                                  MaterialRequestStatus requestStatus) {
+        this(id,
+                new MaterialRequestView(requestId, projectId, projectCode, projectName, projectAddress,
+                        materialId, materialName, unit, requestedQuantity, requestAssignedQuantity,
+                        requestDriverId, requestDriverName, createdById, createdByName,
+                        requestDate, requestDeliveryDate, requestStatus),
+                UserSummary.of(driverId, driverName),
+                assignedQuantity, deliveryDate, status, batchId);
+    }
+}
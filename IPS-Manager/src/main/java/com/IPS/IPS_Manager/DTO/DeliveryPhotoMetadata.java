@@ -0,0 +1,13 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * Spring Data projection of a delivery photo without its image bytes.
+ */
+public interface DeliveryPhotoMetadata {
+    Long getId();
+    String getFileName();
+    String getFileType();
+    String getStorageKey();
+    String getContentHash();
+    Long getFileSize();
+}
@@ -0,0 +1,19 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * One change pushed over the /ws STOMP channel. {@code row} is the changed row in the same
+ * shape the REST read endpoints return (null for deletes), so clients patch their list in place.
+ */
+public record LiveUpdate(String stream, Action action, Object id, Object row) {
+
+    // RESYNC: updates may have been missed, refetch the stream
+    public enum Action { UPSERT, DELETE, RESYNC }
+
+    public static LiveUpdate upsert(String stream, Object id, Object row) {
+        return new LiveUpdate(stream, Action.UPSERT, id, row);
+    }
+
+    public static LiveUpdate delete(String stream, Object id) {
+        return new LiveUpdate(stream, Action.DELETE, id, null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.IPS.IPS_Manager.DTO;
+
+import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Material request as the read endpoints return it. Keeps the JSON shape of the entity
+ * (project / material / driver / createdBy objects) but only with the fields the UI reads.
+ */
+public record MaterialRequestView(Long id, ProjectSummary project, MaterialSummary material,
+                                  int requestedQuantity, int assignedQuantity,
+                                  UserSummary driver, UserSummary createdBy,
+                                  LocalDate requestDate, LocalDate deliveryDate,
+                                  MaterialRequestStatus status) {
+
+    // JPQL constructor, see MaterialRequestRepo.VIEW
+    public MaterialRequestView(Long id,
+                               Long projectId, String projectCode, String projectName, String projectAddress,
+                               String materialId, String materialName, String unit,
+                               int requestedQuantity, int assignedQuantity,
+                               Long driverId, String driverName,
+                               Long createdById, String createdByName,
+                               LocalDate requestDate, LocalDate deliveryDate,
+                               MaterialRequestStatus status) {
+        this(id, new ProjectSummary(projectId, projectCode, projectName, projectAddress),
+                new MaterialSummary(materialId, materialName, unit),
+                requestedQuantity, assignedQuantity,
+                UserSummary.of(driverId, driverName), UserSummary.of(createdById, createdByName),
+                requestDate, deliveryDate, status);
+    }
+}
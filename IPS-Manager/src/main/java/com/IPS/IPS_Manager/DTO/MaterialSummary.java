@@ -0,0 +1,7 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * The material columns a request or project material carries along (stock quantity left out).
+ */
+public record MaterialSummary(String id, String name, String unit) {
+}
@@ -0,0 +1,17 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * Material assigned to a project, with the project and material reduced to their display columns.
+ */
+public record ProjectMaterialView(Long id, ProjectSummary project, MaterialSummary material,
+                                  int assignedQuantity, int quantityUsed) {
+
+    // JPQL constructor
+    public ProjectMaterialView(Long id,
+                               Long projectId, String projectCode, String projectName, String projectAddress,
+                               String materialId, String materialName, String unit,
+                               int assignedQuantity, int quantityUsed) {
+        this(id, new ProjectSummary(projectId, projectCode, projectName, projectAddress),
+                new MaterialSummary(materialId, materialName, unit), assignedQuantity, quantityUsed);
+    }
+}
@@ -0,0 +1,7 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * The project columns a request or project material carries along.
+ */
+public record ProjectSummary(Long id, String projectCode, String name, String address) {
+}
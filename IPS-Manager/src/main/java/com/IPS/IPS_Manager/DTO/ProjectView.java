@@ -0,0 +1,13 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * Project with only its manager's id and name.
+ */
+public record ProjectView(Long id, String projectCode, String name, String address, UserSummary projectManager) {
+
+    // JPQL constructor, manager columns come from a LEFT JOIN
+    public ProjectView(Long id, String projectCode, String name, String address,
+                       Long managerId, String managerName) {
+        this(id, projectCode, name, address, UserSummary.of(managerId, managerName));
+    }
+}
@@ -0,0 +1,9 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * What a push needs of a device subscription: where to send and the browser's encryption keys.
+ * Immutable, so cached role lookups can be shared by every delivery thread without touching
+ * managed PushSubscription entities.
+ */
+public record PushTarget(Long id, String endpoint, String p256dh, String auth) {
+}
@@ -0,0 +1,15 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * How much of one material a project may still request: its assigned quota minus what was delivered.
+ */
+public record RemainingQuotaView(String materialId, String materialName, String unit,
+                                 int assignedQuantity, int quantityUsed, int remainingQuantity) {
+
+    // JPQL constructor, see ProjectMaterialRepo.findRemainingQuota
+    public RemainingQuotaView(String materialId, String materialName, String unit,
+                              int assignedQuantity, int quantityUsed) {
+        this(materialId, materialName, unit, assignedQuantity, quantityUsed,
+                Math.max(0, assignedQuantity - quantityUsed));
+    }
+}
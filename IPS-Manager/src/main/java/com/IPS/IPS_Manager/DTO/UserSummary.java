@@ -0,0 +1,12 @@
+package com.IPS.IPS_Manager.DTO;
+
+/**
+ * Id and name of a user referenced from another view (driver, project manager, creator).
+ */
+public record UserSummary(Long id, String name) {
+
+    // LEFT JOINed users come back as null columns; keep the field itself null rather than {id: null}
+    static UserSummary of(Long id, String name) {
+        return id == null ? null : new UserSummary(id, name);
+    }
+}
@@ -0,0 +1,16 @@
+package com.IPS.IPS_Manager.DTO;
+
+import com.IPS.IPS_Manager.Enum.Role;
+
+import java.util.Set;
+
+/**
+ * User as the list and detail endpoints return it: no password, roles as lower-case names.
+ */
+public record UserView(Long id, String name, String mail, String phone, Set<String> roles) {
+
+    // JPQL constructor: SELECT new UserView(u.id, u.name, u.mail, u.phone, u.roleMask)
+    public UserView(Long id, String name, String mail, String phone, int roleMask) {
+        this(id, name, mail, phone, Role.namesOf(roleMask));
+    }
+}
@@ -4,7 +4,9 @@ import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
@@ -12,14 +14,25 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_delivery_assignment_batch", columnList = "batch_id"),
+        @Index(name = "idx_delivery_assignment_request", columnList = "material_request_id"),
+        @Index(name = "idx_delivery_assignment_driver_date", columnList = "driver_id, delivery_date"),
+        @Index(name = "idx_delivery_assignment_status_id", columnList = "status, id")
+})
 public class DeliveryAssignment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_assignment_seq")
+    @SequenceGenerator(name = "delivery_assignment_seq", sequenceName = "delivery_assignment_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(optional = false)
     private MaterialRequest materialRequest;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "driver_id", nullable = true)
     private Users driver;
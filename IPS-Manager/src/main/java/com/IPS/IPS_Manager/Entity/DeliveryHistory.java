@@ -3,7 +3,9 @@ package com.IPS.IPS_Manager.Entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
@@ -13,9 +15,12 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class DeliveryHistory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_history_seq")
+    @SequenceGenerator(name = "delivery_history_seq", sequenceName = "delivery_history_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     private DeliveryAssignment assignment;
 
@@ -13,13 +13,23 @@ import lombok.*;
 public class DeliveryPhoto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_photos_seq")
+    @SequenceGenerator(name = "delivery_photos_seq", sequenceName = "delivery_photos_seq", allocationSize = 50)
     private Long id;
 
     private String fileName;
     private String fileType;
 
 
+    @Column(name = "storage_key")
+    private String storageKey; // location inside PhotoStorage; null only for rows not yet migrated out of BYTEA
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 hex of the original image
+
+    private Long fileSize;
+
+    // Legacy in-database copy. New uploads leave this null; LegacyPhotoMigrationJob empties existing rows
     @Column(name = "data", columnDefinition = "BYTEA") // Maps directly to Postgres bytea type
     private byte[] data;
 
@@ -13,11 +13,17 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
-@Table(name = "failed_requests")
+@Table(name = "failed_requests", indexes = {
+        @Index(name = "idx_failed_requests_type_created", columnList = "type, created_at, id"),
+        @Index(name = "idx_failed_requests_project_created", columnList = "project_id, created_at, id"),
+        @Index(name = "idx_failed_requests_driver_created", columnList = "driver_id, created_at, id"),
+        @Index(name = "idx_failed_requests_created_id", columnList = "created_at, id")
+})
 public class FailedRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "failed_requests_seq")
+    @SequenceGenerator(name = "failed_requests_seq", sequenceName = "failed_requests_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -4,7 +4,9 @@ import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.security.core.userdetails.User;
 
 import java.time.LocalDate;
@@ -13,14 +15,24 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_material_request_status_id", columnList = "status, id"),
+        @Index(name = "idx_material_request_project_status", columnList = "project_id, status, id"),
+        @Index(name = "idx_material_request_driver", columnList = "driver_id, id")
+})
 public class MaterialRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "material_request_seq")
+    @SequenceGenerator(name = "material_request_seq", sequenceName = "material_request_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(optional = false)
     private Project project;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(optional = false)
     private Material material;
 
@@ -28,9 +40,13 @@ public class MaterialRequest {
 
     private int assignedQuantity;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     private Users driver;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne
     @JoinColumn(name = "created_by")
     private Users createdBy;  // ✅ NEW FIELD - tracks who created the request
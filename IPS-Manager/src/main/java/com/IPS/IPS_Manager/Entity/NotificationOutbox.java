@@ -0,0 +1,76 @@
+package com.IPS.IPS_Manager.Entity;
+
+import com.IPS.IPS_Manager.Enum.OutboxChannel;
+import com.IPS.IPS_Manager.Enum.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A push or mail notification written in the same transaction as the change it reports,
+ * and delivered afterwards by NotificationOutboxRelay.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notification_outbox_created_at", columnList = "created_at")
+})
+public class NotificationOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxChannel channel;
+
+    @Column(nullable = false)
+    private String recipient; // see OutboxChannel
+
+    @Column(nullable = false)
+    private String title;     // push title or mail subject
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(columnDefinition = "TEXT")
+    private String data;      // push data map as JSON, null for mail
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Due time of the next attempt; while a relay holds the row, the end of its lease
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // Push devices a retry still has to reach (see PartialPushDeliveryException); null = all
+    @Column(columnDefinition = "TEXT")
+    private String pendingTargets;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) this.nextAttemptAt = this.createdAt;
+        if (this.status == null) this.status = OutboxStatus.PENDING;
+    }
+}
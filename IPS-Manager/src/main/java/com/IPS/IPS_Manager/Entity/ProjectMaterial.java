@@ -3,7 +3,9 @@ package com.IPS.IPS_Manager.Entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Data
@@ -11,13 +13,18 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ProjectMaterial {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "project_material_seq")
+    @SequenceGenerator(name = "project_material_seq", sequenceName = "project_material_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(optional = false)
     @JoinColumn(name = "project_id", nullable = false, foreignKey = @ForeignKey(name = "fk_project_material_project"))
     private Project project;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(optional = false)
     @JoinColumn(name = "material_id", nullable = false, foreignKey = @ForeignKey(name = "fk_project_material_material"))
     private Material material;
@@ -3,7 +3,9 @@ package com.IPS.IPS_Manager.Entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -11,16 +13,21 @@ import java.time.LocalDateTime;
  * Entity to store push notification subscriptions for each user/device
  */
 @Entity
-@Table(name = "push_subscriptions")
+@Table(name = "push_subscriptions", indexes = {
+        @Index(name = "idx_push_subscriptions_active_user", columnList = "active, user_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PushSubscription {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "push_subscriptions_seq")
+    @SequenceGenerator(name = "push_subscriptions_seq", sequenceName = "push_subscriptions_seq", allocationSize = 50)
     private Long id;
 
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private Users user;
@@ -1,32 +1,30 @@
 package com.IPS.IPS_Manager.Entity;
 
+import com.IPS.IPS_Manager.DTO.AuthenticatedUser;
+import com.IPS.IPS_Manager.Enum.Role;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class UserPrincipal implements UserDetails {
     private Users user;
+    private final AuthenticatedUser snapshot;
 
     public UserPrincipal(Users user) {
         this.user = user;
+        this.snapshot = AuthenticatedUser.of(user);
+    }
+
+    // Immutable id/name/mail/roles copy that controllers receive through @CurrentUser
+    public AuthenticatedUser snapshot() {
+        return snapshot;
     }
 
-    // ✅ FIXED: Maps the entire Set of roles dynamically to GrantedAuthority items
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        if (user.getRoles() == null || user.getRoles().isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return user.getRoles().stream()
-                .filter(role -> role != null && !role.trim().isEmpty())
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.trim().toUpperCase()))
-                .collect(Collectors.toList());
+        // Shared, precomputed list per role mask
+        return Role.authoritiesOf(user.getRoleMask());
     }
 
     @Override
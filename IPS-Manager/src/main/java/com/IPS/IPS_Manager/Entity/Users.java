@@ -1,12 +1,15 @@
 package com.IPS.IPS_Manager.Entity;
 
 
+import com.IPS.IPS_Manager.Enum.Role;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.Set;
 
 
@@ -14,11 +17,12 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_role_mask", columnList = "role_mask"))
 public class Users {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -28,12 +32,29 @@ public class Users {
 
     private String phone;
 
+    // Accepted on register/login/update bodies, never written back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = true)
     private String password;
 
-    // ✅ Automatically creates a separate 'user_roles' table
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "role")
-    private Set<String> roles = new HashSet<>();
-}
\ No newline at end of file
+    // One bit per Role (see Role.bit()); replaces the old user_roles collection table
+    @JsonIgnore
+    @Column(name = "role_mask", nullable = false, columnDefinition = "integer default 0")
+    private int roleMask;
+
+    /**
+     * Role names as the API exposes them, e.g. ["driver", "head_driver"].
+     */
+    public Set<String> getRoles() {
+        return Role.namesOf(roleMask);
+    }
+
+    // Accepts any case; unknown names are rejected
+    public void setRoles(Collection<String> roles) {
+        this.roleMask = Role.maskOf(roles);
+    }
+
+    public boolean hasRole(Role role) {
+        return role.isIn(roleMask);
+    }
+}
@@ -0,0 +1,15 @@
+package com.IPS.IPS_Manager.Enum;
+
+/**
+ * Domain events other IPS-Manager nodes need to hear about (see ClusterEventBus).
+ * Keys carried with each type are noted per constant; no keys means "all of them".
+ */
+public enum ClusterEventType {
+    USER_UPDATED,           // user mails
+    SUBSCRIPTIONS_CHANGED,  // none: role → subscription lookups are cached as a whole
+    MATERIAL_STOCK_CHANGED, // material ids
+    REQUEST_CHANGED,        // material request ids
+    ASSIGNMENTS_CHANGED,    // delivery assignment ids
+    ASSIGNMENTS_DELETED,    // delivery assignment ids
+    BATCH_CHANGED           // batch id, then UPSERT or DELETE
+}
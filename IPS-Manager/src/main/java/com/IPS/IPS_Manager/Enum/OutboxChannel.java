@@ -0,0 +1,10 @@
+package com.IPS.IPS_Manager.Enum;
+
+/**
+ * How a notification_outbox row is delivered, and what its recipient column holds.
+ */
+public enum OutboxChannel {
+    PUSH_USER,  // user id
+    PUSH_ROLE,  // role name
+    MAIL        // mail address
+}
@@ -0,0 +1,7 @@
+package com.IPS.IPS_Manager.Enum;
+
+public enum OutboxStatus {
+    PENDING,    // waiting for (another) delivery attempt
+    SENT,
+    FAILED      // gave up after the last allowed attempt
+}
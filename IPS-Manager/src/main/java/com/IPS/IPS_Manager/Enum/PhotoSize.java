@@ -0,0 +1,31 @@
+package com.IPS.IPS_Manager.Enum;
+
+public enum PhotoSize {
+    THUMB(320),     // gallery grids
+    MEDIUM(1280),   // detail views on phones/tablets
+    ORIGINAL(0);    // the uploaded file, untouched
+
+    private final int maxEdge;
+
+    PhotoSize(int maxEdge) {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge() {
+        return maxEdge;
+    }
+
+    // Variants live next to the original in PhotoStorage: "<key>.thumb.jpg", "<key>.medium.jpg"
+    public String variantKey(String originalKey) {
+        return this == ORIGINAL ? originalKey : originalKey + "." + name().toLowerCase() + ".jpg";
+    }
+
+    public static PhotoSize fromParam(String value) {
+        if (value == null || value.isBlank()) return ORIGINAL;
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown photo size '" + value + "'. Use thumb, medium or original");
+        }
+    }
+}
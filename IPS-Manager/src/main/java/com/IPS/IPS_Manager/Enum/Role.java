@@ -0,0 +1,101 @@
+package com.IPS.IPS_Manager.Enum;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.*;
+
+/**
+ * User roles, stored together as one bit each in users.role_mask.
+ * Names are the lower-case strings the API and frontend already use ("project_manager", ...).
+ */
+public enum Role {
+    DRIVER,
+    PROJECT_MANAGER,
+    HEAD_DRIVER,
+    ADMIN,
+    DEV;
+
+    private static final Role[] VALUES = values();
+    private static final int ALL = (1 << VALUES.length) - 1;
+
+    // Every possible mask → its authorities, built once (5 roles = 32 entries)
+    private static final List<List<GrantedAuthority>> AUTHORITIES = new ArrayList<>();
+    // Per role, every mask that includes it: "role_mask IN (...)" stays an index scan
+    private static final Map<Role, List<Integer>> MASKS_WITH = new EnumMap<>(Role.class);
+
+    static {
+        for (int mask = 0; mask <= ALL; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            for (Role role : VALUES) {
+                if (role.isIn(mask)) authorities.add(new SimpleGrantedAuthority("ROLE_" + role.name()));
+            }
+            AUTHORITIES.add(List.copyOf(authorities));
+        }
+        for (Role role : VALUES) {
+            List<Integer> masks = new ArrayList<>();
+            for (int mask = 0; mask <= ALL; mask++) {
+                if (role.isIn(mask)) masks.add(mask);
+            }
+            MASKS_WITH.put(role, List.copyOf(masks));
+        }
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean isIn(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public String getName() {
+        return name().toLowerCase();
+    }
+
+    public List<Integer> masksContaining() {
+        return MASKS_WITH.get(this);
+    }
+
+    /**
+     * Case-insensitive lookup of a role name ("HEAD_DRIVER", "head_driver", " driver ").
+     */
+    public static Optional<Role> fromName(String name) {
+        if (name == null || name.isBlank()) return Optional.empty();
+        String normalized = name.trim().toUpperCase();
+        for (Role role : VALUES) {
+            if (role.name().equals(normalized)) return Optional.of(role);
+        }
+        return Optional.empty();
+    }
+
+    public static Set<String> names() {
+        Set<String> names = new LinkedHashSet<>();
+        for (Role role : VALUES) names.add(role.getName());
+        return names;
+    }
+
+    public static int maskOf(Collection<String> names) {
+        int mask = 0;
+        if (names == null) return mask;
+        for (String name : names) {
+            if (name == null || name.isBlank()) continue;
+            mask |= fromName(name)
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown role: " + name.trim()))
+                    .bit();
+        }
+        return mask;
+    }
+
+    public static Set<String> namesOf(int mask) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Role role : VALUES) {
+            if (role.isIn(mask)) names.add(role.getName());
+        }
+        return names;
+    }
+
+    public static List<GrantedAuthority> authoritiesOf(int mask) {
+        return AUTHORITIES.get(mask & ALL);
+    }
+}
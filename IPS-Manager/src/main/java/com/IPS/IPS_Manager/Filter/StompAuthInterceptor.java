@@ -0,0 +1,92 @@
+package com.IPS.IPS_Manager.Filter;
+
+import com.IPS.IPS_Manager.Entity.UserPrincipal;
+import com.IPS.IPS_Manager.Enum.Role;
+import com.IPS.IPS_Manager.Service.JWTService;
+import com.IPS.IPS_Manager.Service.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JWT auth for the STOMP channel. Browsers can't put headers on the WebSocket handshake, so the
+ * token travels in the CONNECT frame's Authorization header and is checked like JwtFilter does.
+ * Subscriptions are limited to the caller's own role and user topics; clients never SEND.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private static final Pattern ROLE_TOPIC = Pattern.compile("/topic/role\\.([a-z_]+)\\.[a-z]+");
+    private static final Pattern USER_TOPIC = Pattern.compile("/topic/user\\.(\\d+)\\.[a-z]+");
+
+    private final JWTService jwtService;
+    private final UserPrincipalCache principalCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) return message;
+
+        switch (accessor.getCommand()) {
+            case CONNECT, STOMP -> accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+            case SUBSCRIBE -> checkSubscription(accessor.getUser(), accessor.getDestination());
+            case SEND -> throw new AccessDeniedException("This channel is receive-only");
+            default -> { }
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AuthenticationCredentialsNotFoundException("Missing bearer token");
+        }
+
+        Claims claims = jwtService.extractAllClaims(authHeader.substring(7));
+        UserDetails userDetails = principalCache.get(claims.getSubject());
+        if (!jwtService.validateToken(claims, userDetails)) {
+            throw new BadCredentialsException("Invalid token");
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    private void checkSubscription(Principal user, String destination) {
+        if (!(user instanceof UsernamePasswordAuthenticationToken auth)
+                || !(auth.getPrincipal() instanceof UserPrincipal principal)) {
+            throw new AccessDeniedException("Not connected");
+        }
+        if (destination == null) {
+            throw new AccessDeniedException("No destination");
+        }
+
+        Matcher role = ROLE_TOPIC.matcher(destination);
+        if (role.matches()) {
+            boolean allowed = Role.fromName(role.group(1))
+                    .map(r -> principal.snapshot().hasRole(r.getName()))
+                    .orElse(false);
+            if (allowed) return;
+        }
+
+        Matcher own = USER_TOPIC.matcher(destination);
+        if (own.matches() && own.group(1).equals(String.valueOf(principal.snapshot().id()))) {
+            return;
+        }
+
+        throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+    }
+}
@@ -1,13 +1,112 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.BatchKey;
+import com.IPS.IPS_Manager.DTO.BatchRowDTO;
+import com.IPS.IPS_Manager.DTO.DeliveryAssignmentView;
 import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
+import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface DeliveryAssignmentRepo extends JpaRepository<DeliveryAssignment, Long> {
     List<DeliveryAssignment> findByMaterialRequestId(Long requestId);
     List<DeliveryAssignment> findByDriverId(Long driverId);
-    List<DeliveryAssignment> findByBatchId(String batchId);
-    List<DeliveryAssignment> findByBatchIdIsNotNull();
+
+    // Summed in the database over idx_delivery_assignment_request, no rows are loaded
+    @Query("SELECT COALESCE(SUM(a.assignedQuantity), 0) FROM DeliveryAssignment a WHERE a.materialRequest.id = :requestId")
+    long sumAssignedQuantity(@Param("requestId") Long requestId);
+
+    /**
+     * Select list for {@link DeliveryAssignmentView}; append a WHERE clause. Aliases: a assignment,
+     * ad assignment driver, r request, p project, m material, rd request driver, c createdBy.
+     */
+    String VIEW = "SELECT new com.IPS.IPS_Manager.DTO.DeliveryAssignmentView(a.id, ad.id, ad.name, " +
+            "a.assignedQuantity, a.deliveryDate, a.status, a.batchId, r.id, " +
+            "p.id, p.projectCode, p.name, p.address, m.Id, m.Name, m.unit, " +
+            "r.requestedQuantity, r.assignedQuantity, rd.id, rd.name, c.id, c.name, " +
+            "r.requestDate, r.deliveryDate, r.status) " +
+            "FROM DeliveryAssignment a JOIN a.materialRequest r JOIN r.project p JOIN r.material m " +
+            "LEFT JOIN a.driver ad LEFT JOIN r.driver rd LEFT JOIN r.createdBy c ";
+
+    @Query(VIEW + "WHERE r.id = :requestId ORDER BY a.id")
+    List<DeliveryAssignmentView> findViewsByMaterialRequestId(@Param("requestId") Long requestId);
+
+    @Query(VIEW + "WHERE a.id IN :ids ORDER BY a.id")
+    List<DeliveryAssignmentView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.id FROM DeliveryAssignment a WHERE a.batchId = :batchId")
+    List<Long> findIdsByBatchId(@Param("batchId") String batchId);
+
+    @Query(VIEW + "WHERE ad.id = :driverId ORDER BY a.deliveryDate, a.id")
+    List<DeliveryAssignmentView> findViewsByDriverId(@Param("driverId") Long driverId);
+
+    /**
+     * Keyset page of assignments in id order; every filter is optional.
+     * Date filters apply to the delivery date.
+     */
+    @Query(VIEW +
+            "WHERE (:after IS NULL OR a.id > :after) " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:projectId IS NULL OR p.id = :projectId) " +
+            "AND (:driverId IS NULL OR ad.id = :driverId) " +
+            "AND (:from IS NULL OR a.deliveryDate >= :from) " +
+            "AND (:to IS NULL OR a.deliveryDate <= :to) " +
+            "ORDER BY a.id")
+    List<DeliveryAssignmentView> search(@Param("status") MaterialRequestStatus status,
+                                        @Param("projectId") Long projectId,
+                                        @Param("driverId") Long driverId,
+                                        @Param("from") LocalDate from,
+                                        @Param("to") LocalDate to,
+                                        @Param("after") Long after,
+                                        Limit limit);
+
+    /**
+     * Keyset page of batches (oldest batch first, by their first assignment id), optionally limited
+     * to a project and to PENDING (no driver yet) or ASSIGNED batches.
+     */
+    @Query("SELECT new com.IPS.IPS_Manager.DTO.BatchKey(a.batchId, MIN(a.id)) " +
+            "FROM DeliveryAssignment a JOIN a.materialRequest r LEFT JOIN a.driver d " +
+            "WHERE a.batchId IS NOT NULL AND (:projectId IS NULL OR r.project.id = :projectId) " +
+            "GROUP BY a.batchId " +
+            "HAVING (:after IS NULL OR MIN(a.id) > :after) " +
+            "AND (:status IS NULL " +
+            "OR (:status = 'PENDING' AND COUNT(d.id) = 0) " +
+            "OR (:status = 'ASSIGNED' AND COUNT(d.id) > 0)) " +
+            "ORDER BY MIN(a.id)")
+    List<BatchKey> findBatchKeys(@Param("projectId") Long projectId,
+                                 @Param("status") String status,
+                                 @Param("after") Long after,
+                                 Limit limit);
+
+    /**
+     * All rows of the given batches with the columns the batch queue shows, in a single query.
+     */
+    @Query("SELECT new com.IPS.IPS_Manager.DTO.BatchRowDTO(a.batchId, p.id, p.name, a.deliveryDate, " +
+            "d.id, d.name, m.Name, m.unit, a.assignedQuantity) " +
+            "FROM DeliveryAssignment a JOIN a.materialRequest r JOIN r.project p JOIN r.material m " +
+            "LEFT JOIN a.driver d " +
+            "WHERE a.batchId IN :batchIds ORDER BY a.batchId, a.id")
+    List<BatchRowDTO> findBatchRows(@Param("batchIds") Collection<String> batchIds);
+
+    /**
+     * Hands the whole batch to a driver and clears the grouping, so it leaves the queue.
+     */
+    @Modifying
+    @Query("UPDATE DeliveryAssignment a SET a.driver = :driver, a.deliveryDate = :deliveryDate, a.batchId = NULL " +
+            "WHERE a.batchId = :batchId")
+    int assignBatch(@Param("batchId") String batchId,
+                    @Param("driver") Users driver,
+                    @Param("deliveryDate") LocalDate deliveryDate);
+
+    @Modifying
+    @Query("DELETE FROM DeliveryAssignment a WHERE a.batchId = :batchId")
+    int deleteByBatchId(@Param("batchId") String batchId);
 }
\ No newline at end of file
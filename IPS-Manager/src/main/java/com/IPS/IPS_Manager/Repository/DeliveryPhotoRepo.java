@@ -1,12 +1,16 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.DeliveryPhotoMetadata;
 import com.IPS.IPS_Manager.Entity.DeliveryPhoto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DeliveryPhotoRepo extends JpaRepository<DeliveryPhoto, Long> {
@@ -26,4 +30,35 @@ public interface DeliveryPhotoRepo extends JpaRepository<DeliveryPhoto, Long> {
      */
     @Query("SELECT p.id, p.fileName, p.fileType FROM DeliveryPhoto p WHERE p.deliveryAssignment.id = :assignmentId")
     List<Object[]> findPhotoSummaryByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    /**
+     * Loads a single photo's metadata (never the BYTEA column), e.g. to answer conditional GETs.
+     */
+    Optional<DeliveryPhotoMetadata> findMetadataById(Long id);
+
+    /**
+     * Ids of photos whose bytes still live in the BYTEA column, in id order, for the file-store migration.
+     */
+    @Query("SELECT p.id FROM DeliveryPhoto p WHERE p.storageKey IS NULL AND p.data IS NOT NULL AND p.id > :afterId ORDER BY p.id")
+    List<Long> findLegacyPhotoIds(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Locks the photo row if it still needs migrating, skipping it when another node already has it locked,
+     * so two nodes never copy the same photo into the file store.
+     */
+    @Query(value = "SELECT id FROM delivery_photos " +
+            "WHERE id = :id AND storage_key IS NULL AND data IS NOT NULL " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Long> lockLegacyPhoto(@Param("id") Long id);
+
+    /**
+     * Storage keys of every photo attached to the batch, so their files can be removed after the rows.
+     */
+    @Query("SELECT p.storageKey FROM DeliveryPhoto p WHERE p.deliveryAssignment.batchId = :batchId AND p.storageKey IS NOT NULL")
+    List<String> findStorageKeysByBatchId(@Param("batchId") String batchId);
+
+    @Modifying
+    @Query("DELETE FROM DeliveryPhoto p WHERE p.deliveryAssignment.id IN " +
+            "(SELECT a.id FROM DeliveryAssignment a WHERE a.batchId = :batchId)")
+    int deleteByBatchId(@Param("batchId") String batchId);
 }
\ No newline at end of file
@@ -2,13 +2,40 @@ package com.IPS.IPS_Manager.Repository;
 
 import com.IPS.IPS_Manager.Entity.FailedRequest;
 import com.IPS.IPS_Manager.Enum.FailedRequestType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface FailedRequestRepo extends JpaRepository<FailedRequest, Long> {
     List<FailedRequest> findAllByOrderByCreatedAtDesc();
     List<FailedRequest> findByType(FailedRequestType type);
+
+    /**
+     * Keyset page, newest first by (createdAt, id); ids alone do not follow creation order because
+     * each node pre-allocates its own block of the sequence. The page continues below
+     * ({@code afterCreatedAt}, {@code afterId}) when given.
+     */
+    @Query("SELECT f FROM FailedRequest f " +
+            "WHERE (:afterCreatedAt IS NULL OR f.createdAt < :afterCreatedAt " +
+            "OR (f.createdAt = :afterCreatedAt AND f.id < :afterId)) " +
+            "AND (:type IS NULL OR f.type = :type) " +
+            "AND (:projectId IS NULL OR f.projectId = :projectId) " +
+            "AND (:driverId IS NULL OR f.driverId = :driverId) " +
+            "AND (:from IS NULL OR f.createdAt >= :from) " +
+            "AND (:to IS NULL OR f.createdAt < :to) " +
+            "ORDER BY f.createdAt DESC, f.id DESC")
+    List<FailedRequest> search(@Param("type") FailedRequestType type,
+                               @Param("projectId") Long projectId,
+                               @Param("driverId") Long driverId,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to,
+                               @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                               @Param("afterId") Long afterId,
+                               Limit limit);
 }
\ No newline at end of file
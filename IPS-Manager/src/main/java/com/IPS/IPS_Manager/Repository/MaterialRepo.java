@@ -3,13 +3,37 @@ package com.IPS.IPS_Manager.Repository;
 import com.IPS.IPS_Manager.Entity.Material;
 import com.IPS.IPS_Manager.Entity.Project;
 import com.IPS.IPS_Manager.Entity.ProjectMaterial;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MaterialRepo extends JpaRepository<Material, String> {
 
+    // Only the ids, so bulk imports can tell inserts from updates without loading every material
+    @Query("SELECT m.Id FROM Material m")
+    List<String> findAllIds();
+
+    @Query("SELECT m FROM Material m WHERE (:after IS NULL OR m.Id > :after) ORDER BY m.Id")
+    List<Material> findPage(@Param("after") String after, Limit limit);
+
+    // Takes stock only while enough is left; 0 rows updated means a shortage (or an unknown material)
+    @Modifying
+    @Query("UPDATE Material m SET m.quantity = m.quantity - :quantity WHERE m.Id = :id AND m.quantity >= :quantity")
+    int reserveStock(@Param("id") String id, @Param("quantity") int quantity);
+
+    @Query("SELECT m.quantity FROM Material m WHERE m.Id = :id")
+    Optional<Integer> findQuantityById(@Param("id") String id);
+
+    // [materialId, quantity] for the given materials, one query for a whole import batch
+    @Query("SELECT m.Id, m.quantity FROM Material m WHERE m.Id IN :ids")
+    List<Object[]> findQuantitiesByIdIn(@Param("ids") Collection<String> ids);
 
 }
@@ -1,15 +1,35 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.MaterialRequestView;
 import com.IPS.IPS_Manager.Entity.MaterialRequest;
 import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MaterialRequestRepo extends JpaRepository<MaterialRequest, Long> {
 
+    /**
+     * Select list for {@link MaterialRequestView}; append a WHERE clause. Aliases: r request,
+     * p project, m material, d driver, c createdBy.
+     */
+    String VIEW = "SELECT new com.IPS.IPS_Manager.DTO.MaterialRequestView(r.id, " +
+            "p.id, p.projectCode, p.name, p.address, m.Id, m.Name, m.unit, " +
+            "r.requestedQuantity, r.assignedQuantity, d.id, d.name, c.id, c.name, " +
+            "r.requestDate, r.deliveryDate, r.status) " +
+            "FROM MaterialRequest r JOIN r.project p JOIN r.material m " +
+            "LEFT JOIN r.driver d LEFT JOIN r.createdBy c ";
+
     List<MaterialRequest> findByProjectIdAndStatus(Long projectId, MaterialRequestStatus status);
     List<MaterialRequest> findByStatus(MaterialRequestStatus status);
 
@@ -21,4 +41,45 @@ public interface MaterialRequestRepo extends JpaRepository<MaterialRequest, Long
     // ✅ NEW - Find all requests for projects managed by a specific project manager
     List<MaterialRequest> findByProject_ProjectManager_Id(Long projectManagerId);
 
+    // [requestId, projectManagerId] for the requests whose project has a manager
+    @Query("SELECT r.id, pm.id FROM MaterialRequest r JOIN r.project p JOIN p.projectManager pm WHERE r.id IN :ids")
+    List<Object[]> findProjectManagerIds(@Param("ids") Collection<Long> requestIds);
+
+    // SELECT ... FOR UPDATE: serializes everything that splits the same request
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM MaterialRequest r WHERE r.id = :id")
+    Optional<MaterialRequest> findByIdForUpdate(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE r.id = :id")
+    Optional<MaterialRequestView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE p.id = :projectId ORDER BY r.id")
+    List<MaterialRequestView> findViewsByProjectId(@Param("projectId") Long projectId);
+
+    @Query(VIEW + "WHERE p.id = :projectId AND r.status = :status ORDER BY r.id")
+    List<MaterialRequestView> findViewsByProjectIdAndStatus(@Param("projectId") Long projectId,
+                                                            @Param("status") MaterialRequestStatus status);
+
+    @Query(VIEW + "WHERE p.projectManager.id = :managerId ORDER BY r.id")
+    List<MaterialRequestView> findViewsByProjectManagerId(@Param("managerId") Long managerId);
+
+    /**
+     * Keyset page of requests in id order; every filter is optional.
+     */
+    @Query(VIEW +
+            "WHERE (:after IS NULL OR r.id > :after) " +
+            "AND (:status IS NULL OR r.status = :status) " +
+            "AND (:projectId IS NULL OR p.id = :projectId) " +
+            "AND (:driverId IS NULL OR d.id = :driverId) " +
+            "AND (:from IS NULL OR r.requestDate >= :from) " +
+            "AND (:to IS NULL OR r.requestDate <= :to) " +
+            "ORDER BY r.id")
+    List<MaterialRequestView> search(@Param("status") MaterialRequestStatus status,
+                                     @Param("projectId") Long projectId,
+                                     @Param("driverId") Long driverId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     @Param("after") Long after,
+                                     Limit limit);
+
 }
@@ -0,0 +1,48 @@
+package com.IPS.IPS_Manager.Repository;
+
+import com.IPS.IPS_Manager.Entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepo extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Locks up to {@code limit} due rows, skipping rows another relay already has locked,
+     * so concurrent relays (threads or nodes) never claim the same notification.
+     */
+    @Query(value = "SELECT * FROM notification_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at, id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.IPS.IPS_Manager.Enum.OutboxStatus.SENT, " +
+            "o.sentAt = :now, o.lastError = NULL WHERE o.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.IPS.IPS_Manager.Enum.OutboxStatus.PENDING, " +
+            "o.nextAttemptAt = :retryAt, o.lastError = :error, o.pendingTargets = :targets WHERE o.id = :id")
+    int scheduleRetry(@Param("id") Long id, @Param("retryAt") LocalDateTime retryAt, @Param("error") String error,
+                      @Param("targets") String pendingTargets);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.IPS.IPS_Manager.Enum.OutboxStatus.FAILED, " +
+            "o.lastError = :error WHERE o.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o " +
+            "WHERE o.status = com.IPS.IPS_Manager.Enum.OutboxStatus.SENT AND o.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -1,7 +1,12 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.ProjectMaterialView;
+import com.IPS.IPS_Manager.DTO.RemainingQuotaView;
 import com.IPS.IPS_Manager.Entity.ProjectMaterial;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,6 +14,33 @@ import java.util.Optional;
 public interface ProjectMaterialRepo extends JpaRepository<ProjectMaterial, Long> {
     List<ProjectMaterial> findByProject_Id(Long projectId);
 
+    @Query("SELECT new com.IPS.IPS_Manager.DTO.ProjectMaterialView(pmat.id, " +
+            "p.id, p.projectCode, p.name, p.address, m.Id, m.Name, m.unit, " +
+            "pmat.assignedQuantity, pmat.quantityUsed) " +
+            "FROM ProjectMaterial pmat JOIN pmat.project p JOIN pmat.material m " +
+            "WHERE p.id = :projectId ORDER BY pmat.id")
+    List<ProjectMaterialView> findViewsByProjectId(@Param("projectId") Long projectId);
+
+    // Only the quota columns, for the request form
+    @Query("SELECT new com.IPS.IPS_Manager.DTO.RemainingQuotaView(m.Id, m.Name, m.unit, " +
+            "pmat.assignedQuantity, pmat.quantityUsed) " +
+            "FROM ProjectMaterial pmat JOIN pmat.material m WHERE pmat.project.id = :projectId ORDER BY m.Id")
+    List<RemainingQuotaView> findRemainingQuota(@Param("projectId") Long projectId);
+
+    // Adds to quantityUsed only while it stays within assignedQuantity; 0 rows means the quota would be exceeded
+    @Modifying
+    @Query("UPDATE ProjectMaterial pmat SET pmat.quantityUsed = pmat.quantityUsed + :quantity " +
+            "WHERE pmat.project.id = :projectId AND pmat.material.Id = :materialId " +
+            "AND pmat.quantityUsed + :quantity <= pmat.assignedQuantity")
+    int consumeQuota(@Param("projectId") Long projectId,
+                     @Param("materialId") String materialId,
+                     @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProjectMaterial pmat SET pmat.quantityUsed = :quantityUsed " +
+            "WHERE pmat.id = :id AND :quantityUsed <= pmat.assignedQuantity")
+    int setQuantityUsedWithinQuota(@Param("id") Long id, @Param("quantityUsed") int quantityUsed);
+
     Optional<ProjectMaterial> findByProject_IdAndMaterial_Id(Long projectId, String materialId);
 
     // convenience alias if you want the old naming too:
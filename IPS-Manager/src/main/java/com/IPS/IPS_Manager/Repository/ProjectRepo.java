@@ -1,8 +1,11 @@
 package com.IPS.IPS_Manager.Repository;
 
-import com.IPS.IPS_Manager.Entity.Material;
+import com.IPS.IPS_Manager.DTO.ProjectView;
 import com.IPS.IPS_Manager.Entity.Project;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +13,15 @@ import java.util.Optional;
 public interface ProjectRepo extends JpaRepository<Project, Long> {
     Optional<Project> findByProjectCode(String projectCode);
     List<Project> findByProjectManagerId(Long projectManagerId);
+
+    // Select list for ProjectView; append a WHERE clause. Aliases: p project, pm manager
+    String VIEW = "SELECT new com.IPS.IPS_Manager.DTO.ProjectView(p.id, p.projectCode, p.name, p.address, " +
+            "pm.id, pm.name) FROM Project p LEFT JOIN p.projectManager pm ";
+
+    @Query(VIEW + "WHERE pm.id = :managerId ORDER BY p.id")
+    List<ProjectView> findViewsByProjectManagerId(@Param("managerId") Long managerId);
+
+    @Query(VIEW + "WHERE (:after IS NULL OR p.id > :after) " +
+            "AND (:managerId IS NULL OR pm.id = :managerId) ORDER BY p.id")
+    List<ProjectView> findPage(@Param("after") Long after, @Param("managerId") Long managerId, Limit limit);
 }
@@ -1,21 +1,38 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.PushTarget;
 import com.IPS.IPS_Manager.Entity.PushSubscription;
 import com.IPS.IPS_Manager.Entity.Users;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PushSubscriptionRepository extends JpaRepository<PushSubscription, Long> {
 
+    String TARGET = "SELECT new com.IPS.IPS_Manager.DTO.PushTarget(s.id, s.endpoint, s.p256dh, s.auth) " +
+            "FROM PushSubscription s ";
+
     /**
-     * Find all active subscriptions for a specific user
+     * Find all active devices of a specific user
      */
-    List<PushSubscription> findByUserAndActiveTrue(Users user);
+    @Query(TARGET + "WHERE s.active = true AND s.user.id = :userId")
+    List<PushTarget> findActiveTargetsByUserId(@Param("userId") Long userId);
 
+    /**
+     * Find all active devices of users whose role_mask is one of the given masks
+     * (pass {@code Role.masksContaining()}), resolved in the database instead of in memory.
+     */
+    @Query(TARGET + "WHERE s.active = true AND s.user.roleMask IN :roleMasks")
+    List<PushTarget> findActiveTargetsByUserRoleMasks(@Param("roleMasks") Collection<Integer> roleMasks);
 
     /**
      * Find subscription by endpoint
@@ -26,4 +43,20 @@ public interface PushSubscriptionRepository extends JpaRepository<PushSubscripti
      * Count active subscriptions for a user
      */
     long countByUserAndActiveTrue(Users user);
+
+    /**
+     * Stamps lastUsed on every device a push was just delivered to
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PushSubscription s SET s.lastUsed = :now WHERE s.id IN :ids")
+    int touchLastUsed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Deactivates subscriptions the push service reported as gone
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PushSubscription s SET s.active = false WHERE s.id IN :ids")
+    int deactivateAll(@Param("ids") Collection<Long> ids);
 }
@@ -1,12 +1,17 @@
 package com.IPS.IPS_Manager.Repository;
 
+import com.IPS.IPS_Manager.DTO.UserView;
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.Role;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,9 +19,28 @@ import java.util.Optional;
 public interface UserRepo extends JpaRepository<Users, Long> {
    Optional<Users> findByMail(String mail);
 
+    List<Users> findByMailIn(Collection<String> mails);
+
     Users findByName(String name);
 
-    // ✅ FIXED: Changed from findByRole to findByRolesContaining
-    List<Users> findByRolesContaining(String role);
+    List<Users> findByRoleMaskIn(Collection<Integer> roleMasks);
+
+    // Select list for UserView (never the password hash); append a WHERE clause
+    String VIEW = "SELECT new com.IPS.IPS_Manager.DTO.UserView(u.id, u.name, u.mail, u.phone, u.roleMask) FROM Users u ";
+
+    @Query(VIEW + "WHERE u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE (:after IS NULL OR u.id > :after) ORDER BY u.id")
+    List<UserView> findPage(@Param("after") Long after, Limit limit);
+
+    @Query(VIEW + "WHERE u.roleMask IN :roleMasks AND (:after IS NULL OR u.id > :after) ORDER BY u.id")
+    List<UserView> findPageByRoleMaskIn(@Param("roleMasks") Collection<Integer> roleMasks,
+                                     @Param("after") Long after, Limit limit);
+
+    // Every mask holding the role's bit, so this is an IN-list scan of idx_users_role_mask
+    default List<Users> findByRole(Role role) {
+        return findByRoleMaskIn(role.masksContaining());
+    }
 
 }
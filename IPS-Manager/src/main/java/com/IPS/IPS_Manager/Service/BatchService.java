@@ -0,0 +1,105 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.LiveUpdate;
+import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
+import com.IPS.IPS_Manager.Entity.MaterialRequest;
+import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
+import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
+import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
+import com.IPS.IPS_Manager.Repository.UserRepo;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch writes done set-based: each operation runs in one transaction and issues
+ * a fixed number of statements no matter how many materials the batch holds.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchService {
+
+    private final DeliveryAssignmentRepo assignmentRepo;
+    private final MaterialRequestRepo requestRepo;
+    private final UserRepo userRepo;
+    private final DeliveryPhotoService photoService;
+    private final LiveUpdatePublisher liveUpdates;
+
+    /**
+     * One line of a new batch: the request it draws from and the quantity to deliver.
+     */
+    public record BatchLine(Long requestId, int quantity) {}
+
+    /**
+     * Creates a PENDING assignment per line, all sharing {@code batchId}.
+     * Returns the saved assignments in line order.
+     */
+    @Transactional
+    public List<DeliveryAssignment> createBatch(String batchId, List<BatchLine> lines) {
+        if (lines.isEmpty()) return List.of();
+
+        Map<Long, MaterialRequest> requests = requestRepo
+                .findAllById(lines.stream().map(BatchLine::requestId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(MaterialRequest::getId, Function.identity()));
+
+        List<DeliveryAssignment> assignments = new ArrayList<>(lines.size());
+        for (BatchLine line : lines) {
+            MaterialRequest request = requests.get(line.requestId());
+            if (request == null) throw new RuntimeException("Request not found: " + line.requestId());
+
+            DeliveryAssignment assignment = new DeliveryAssignment();
+            assignment.setMaterialRequest(request);
+            assignment.setDriver(null);
+            assignment.setAssignedQuantity(line.quantity());
+            assignment.setDeliveryDate(null);
+            assignment.setStatus(MaterialRequestStatus.PENDING);
+            assignment.setBatchId(batchId);
+            assignments.add(assignment);
+        }
+
+        List<DeliveryAssignment> saved = assignmentRepo.saveAll(assignments);
+        liveUpdates.assignmentsChanged(saved.stream().map(DeliveryAssignment::getId).toList());
+        liveUpdates.batchChanged(batchId, LiveUpdate.Action.UPSERT);
+        return saved;
+    }
+
+    /**
+     * Assigns every row of the batch to the driver with a single UPDATE.
+     * Returns false when the batch has no rows.
+     */
+    @Transactional
+    public boolean assignBatch(String batchId, Long driverId, LocalDate deliveryDate) {
+        Users driver = userRepo.findById(driverId)
+                .orElseThrow(() -> new RuntimeException("Driver not found"));
+
+        // The UPDATE clears batchId, so collect the rows for subscribers first
+        List<Long> ids = assignmentRepo.findIdsByBatchId(batchId);
+        if (assignmentRepo.assignBatch(batchId, driver, deliveryDate) == 0) return false;
+
+        liveUpdates.assignmentsChanged(ids);
+        liveUpdates.batchChanged(batchId, LiveUpdate.Action.DELETE); // left the queue
+        return true;
+    }
+
+    /**
+     * Deletes the batch's photos and assignments with two bulk DELETEs.
+     */
+    @Transactional
+    public void deleteBatch(String batchId) {
+        List<Long> ids = assignmentRepo.findIdsByBatchId(batchId);
+        photoService.deleteBatchPhotos(batchId);
+        assignmentRepo.deleteByBatchId(batchId);
+
+        liveUpdates.assignmentsDeleted(ids);
+        liveUpdates.batchChanged(batchId, LiveUpdate.Action.DELETE);
+    }
+}
@@ -0,0 +1,113 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Enum.ClusterEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends domain events to the other IPS-Manager nodes through Postgres NOTIFY on {@value #CHANNEL};
+ * ClusterEventListener receives them there. There is no other shared broker in our deployment.
+ * <p>
+ * Each node numbers its events 1, 2, 3... so receivers can spot a gap and resync. Events are sent
+ * after the surrounding transaction commits, so rolled-back work never leaves a hole in the numbering.
+ */
+@Component
+@Slf4j
+public class ClusterEventBus {
+
+    static final String CHANNEL = "ips_events";
+
+    // NOTIFY payloads must stay under 8000 bytes; bigger key lists are sent as "everything changed"
+    private static final int MAX_PAYLOAD_BYTES = 7_500;
+
+    /**
+     * What goes over the wire.
+     */
+    public record Envelope(String origin, long seq, ClusterEventType type, List<String> keys) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter published;
+    private final Counter failed;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${cluster.events.enabled:true}")
+    private boolean enabled;
+
+    public ClusterEventBus(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.published = Counter.builder("cluster.events.published")
+                .description("Domain events sent to other nodes")
+                .register(meterRegistry);
+        this.failed = Counter.builder("cluster.events.publish.failed")
+                .description("Domain events that could not be sent (other nodes fall back to cache TTLs)")
+                .register(meterRegistry);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void publish(ClusterEventType type, Collection<?> keys) {
+        if (!enabled) return;
+        List<String> keyList = keys.stream().map(String::valueOf).toList();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(type, keyList);
+                }
+            });
+        } else {
+            send(type, keyList);
+        }
+    }
+
+    public void publish(ClusterEventType type, Object key) {
+        publish(type, List.of(key));
+    }
+
+    private void send(ClusterEventType type, List<String> keys) {
+        try {
+            // Numbered and sent under one lock so NOTIFY order matches sequence order for receivers
+            String payload;
+            synchronized (sequence) {
+                payload = encode(new Envelope(nodeId, sequence.incrementAndGet(), type, keys));
+                if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                    payload = encode(new Envelope(nodeId, sequence.get(), type, List.of()));
+                }
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, payload);
+            }
+            published.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("⚠️ Could not publish cluster event {} {}: {}", type, keys, e.getMessage());
+        }
+    }
+
+    private String encode(Envelope envelope) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(envelope);
+    }
+}
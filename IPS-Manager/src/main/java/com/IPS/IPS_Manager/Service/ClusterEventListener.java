@@ -0,0 +1,156 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.ClusterEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds one dedicated connection (outside the pool) that LISTENs for ClusterEventBus
+ * notifications and republishes other nodes' events locally as {@link ClusterEvent}.
+ * <p>
+ * Postgres doesn't queue notifications for a listener that is away, so after a reconnect, or when
+ * a node's sequence numbers skip, everything is assumed stale and a {@link ClusterEvent.Resync} is
+ * published instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterEventListener {
+
+    private final ClusterEventBus bus;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cluster.events.poll-timeout-ms:5000}")
+    private int pollTimeoutMs;
+
+    @Value("${cluster.events.max-reconnect-delay-ms:30000}")
+    private long maxReconnectDelayMs;
+
+    // Last sequence number seen per origin node
+    private final Map<String, Long> lastSeq = new HashMap<>();
+
+    private volatile boolean running;
+    private Thread thread;
+    private Counter received;
+    private Counter resyncs;
+
+    @PostConstruct
+    public void start() {
+        if (!bus.isEnabled()) return;
+
+        received = Counter.builder("cluster.events.received")
+                .description("Domain events received from other nodes")
+                .register(meterRegistry);
+        resyncs = Counter.builder("cluster.events.resyncs")
+                .description("Full cache drops after a reconnect or a sequence gap")
+                .register(meterRegistry);
+
+        running = true;
+        thread = Thread.ofPlatform().name("cluster-events").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(pollTimeoutMs + 1000L);
+        }
+    }
+
+    private void run() {
+        long reconnectDelayMs = 1000;
+        boolean connectedBefore = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("LISTEN " + ClusterEventBus.CHANNEL);
+                }
+                log.info("📡 Listening for cluster events as node {}", bus.nodeId());
+
+                // Anything sent while we were away is gone
+                if (connectedBefore) resync("listener reconnected");
+                connectedBefore = true;
+                reconnectDelayMs = 1000;
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(pollTimeoutMs);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("⚠️ Cluster event listener lost its connection ({}), retrying in {} ms",
+                        e.getMessage(), reconnectDelayMs);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                reconnectDelayMs = Math.min(reconnectDelayMs * 2, maxReconnectDelayMs);
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        ClusterEventBus.Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(payload, ClusterEventBus.Envelope.class);
+        } catch (Exception e) {
+            log.warn("⚠️ Ignoring malformed cluster event: {}", payload);
+            return;
+        }
+        if (bus.nodeId().equals(envelope.origin())) return;
+
+        // First event from a node is its baseline; after that numbers must be consecutive
+        Long previous = lastSeq.get(envelope.origin());
+        if (previous != null && envelope.seq() != previous + 1) {
+            resync("gap from node " + envelope.origin() + " (" + previous + " → " + envelope.seq() + ")");
+        }
+        lastSeq.put(envelope.origin(), envelope.seq());
+
+        received.increment();
+        try {
+            events.publishEvent(new ClusterEvent(envelope.type(), envelope.keys()));
+        } catch (Exception e) {
+            log.error("❌ Cluster event {} handler failed: {}", envelope.type(), e.getMessage());
+        }
+    }
+
+    private void resync(String reason) {
+        resyncs.increment();
+        lastSeq.clear();
+        log.warn("🔄 Cluster resync: {}", reason);
+        try {
+            events.publishEvent(new ClusterEvent.Resync(reason));
+        } catch (Exception e) {
+            log.error("❌ Cluster resync handler failed: {}", e.getMessage());
+        }
+    }
+}
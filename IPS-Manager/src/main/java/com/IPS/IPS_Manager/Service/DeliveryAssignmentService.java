@@ -1,14 +1,18 @@
 package com.IPS.IPS_Manager.Service;
 
+import com.IPS.IPS_Manager.DTO.DeliveryAssignmentView;
 import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
 import com.IPS.IPS_Manager.Entity.MaterialRequest;
 import com.IPS.IPS_Manager.Entity.Users;
 import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
+import com.IPS.IPS_Manager.Repository.DeliveryPhotoRepo;
 import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
 import com.IPS.IPS_Manager.Repository.UserRepo;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -30,18 +34,29 @@ public class DeliveryAssignmentService {
     private PushNotificationService pushNotificationService;
 
     @Autowired
-    private MailService mailService;
+    private NotificationOutboxService notificationOutbox;
 
+    @Autowired
+    private LiveUpdatePublisher liveUpdates;
+
+    @Autowired
+    private DeliveryPhotoRepo photoRepo;
+
+    @Autowired
+    private DeliveryPhotoService photoService;
+
+    /**
+     * Splits off part of a request for a driver. The request row stays locked until commit, so
+     * concurrent splits run the sum-check-insert one after another and can't over-assign.
+     */
+    @Transactional
     public DeliveryAssignment assignDriver(Long requestId, Long driverId, int assignedQty, LocalDate date) {
-        MaterialRequest request = requestRepo.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
         Users driver = userRepo.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver not found"));
+        MaterialRequest request = requestRepo.findByIdForUpdate(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
 
-        int alreadyAssigned = assignmentRepo.findByMaterialRequestId(requestId)
-                .stream()
-                .mapToInt(DeliveryAssignment::getAssignedQuantity)
-                .sum();
+        long alreadyAssigned = assignmentRepo.sumAssignedQuantity(requestId);
 
         if (alreadyAssigned + assignedQty > request.getRequestedQuantity()) {
             throw new RuntimeException("Assigned quantity exceeds requested quantity");
@@ -72,31 +87,31 @@ public class DeliveryAssignmentService {
                 )
         );
 
-        // Notify driver via Email
+        // Notify driver via Email (sent by the outbox relay after commit; SMTP never holds the request lock)
         if (driver.getMail() != null && !driver.getMail().isEmpty()) {
-            String subject = "🚚 New Delivery Assignment Assigned";
-            String body = String.format("Hello %s,\n\nYou have been assigned a new delivery task.\n\n" +
-                            "• Material: %d x %s\n" +
-                            "• Destination Project: %s\n" +
-                            "• Scheduled Date: %s\n\n" +
-                            "Best regards,\nIPS Fleet Dispatch Team",
-                    driver.getName(), assignedQty, request.getMaterial().getName(), request.getProject().getName(), date.toString());
-
-            mailService.sendMail(driver.getMail(), subject, body);
+            notificationOutbox.enqueueMail(driver.getMail(), MailService.ASSIGNMENT_CREATED, MailTemplate.values(
+                    "driver", driver.getName(),
+                    "quantity", assignedQty,
+                    "material", request.getMaterial().getName(),
+                    "project", request.getProject().getName(),
+                    "date", date));
         }
 
+        liveUpdates.assignmentChanged(saved.getId());
         return saved;
     }
 
-    public List<DeliveryAssignment> getAssignmentsByRequest(Long requestId) {
-        return assignmentRepo.findByMaterialRequestId(requestId).stream().toList();
+    public List<DeliveryAssignmentView> getAssignmentsByRequest(Long requestId) {
+        return assignmentRepo.findViewsByMaterialRequestId(requestId);
     }
 
-    public List<DeliveryAssignment> getAssignmentsByDriver(Long driverId) {
-        return assignmentRepo.findByDriverId(driverId);
+    public List<DeliveryAssignmentView> getAssignmentsByDriver(Long driverId) {
+        return assignmentRepo.findViewsByDriverId(driverId);
     }
 
     // ✅ MERGED METHOD: Handles status logic, push notifications, and emails all at once
+    // Notifications are outbox rows committed with the status change; nothing is sent inline
+    @Transactional
     public DeliveryAssignment updateStatus(Long assignmentId, String newStatus) {
         DeliveryAssignment assignment = assignmentRepo.findById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Assignment not found"));
@@ -109,14 +124,9 @@ public class DeliveryAssignmentService {
 
         // 2. EMAIL NOTIFICATION TO THE DRIVER (From your snippet)
         if (saved.getDriver() != null && saved.getDriver().getMail() != null) {
-            String driverEmail = saved.getDriver().getMail();
-            String emailSubject = "🚚 Delivery Assignment Update";
-            String emailBody = "Hello " + saved.getDriver().getName() + ",\n\n" +
-                    "Your assigned delivery target status has changed to: " + parsedStatus + ".\n\n" +
-                    "Please review your app context queue details.\n\n" +
-                    "Best regards,\nIPS Dispatch Team";
-
-            mailService.sendMail(driverEmail, emailSubject, emailBody);
+            notificationOutbox.enqueueMail(saved.getDriver().getMail(), MailService.ASSIGNMENT_STATUS_CHANGED, MailTemplate.values(
+                    "driver", saved.getDriver().getName(),
+                    "status", parsedStatus));
         }
 
         // 3. PUSH & EMAIL NOTIFICATIONS TO MANAGER IF COMPLETED ("SENT")
@@ -141,15 +151,12 @@ public class DeliveryAssignmentService {
 
                 // Email to Manager
                 if (manager.getMail() != null && !manager.getMail().isEmpty()) {
-                    String managerSubject = "📋 Material Delivery Notification: Completed";
-                    String managerBody = String.format("Hello %s,\n\nYour materials have arrived safely at the job site.\n\n" +
-                                    "• Project: %s\n" +
-                                    "• Item Delivered: %d x %s\n" +
-                                    "• Driver: %s\n\n" +
-                                    "Best regards,\nIPS System Management",
-                            manager.getName(), request.getProject().getName(), assignment.getAssignedQuantity(), request.getMaterial().getName(), assignment.getDriver().getName());
-
-                    mailService.sendMail(manager.getMail(), managerSubject, managerBody);
+                    notificationOutbox.enqueueMail(manager.getMail(), MailService.DELIVERY_COMPLETED, MailTemplate.values(
+                            "manager", manager.getName(),
+                            "project", request.getProject().getName(),
+                            "quantity", assignment.getAssignedQuantity(),
+                            "material", request.getMaterial().getName(),
+                            "driver", assignment.getDriver().getName()));
                 }
             }
 
@@ -161,10 +168,33 @@ public class DeliveryAssignmentService {
             );
         }
 
+        liveUpdates.assignmentChanged(saved.getId());
         return saved;
     }
 
+    /**
+     * Deletes the assignment and its photos in one transaction; the stored photo files go and
+     * subscribers are told only once it commits. Returns false when there is no such assignment.
+     */
+    @Transactional
+    public boolean deleteAssignment(Long assignmentId) {
+        DeliveryAssignment assignment = assignmentRepo.findById(assignmentId).orElse(null);
+        if (assignment == null) return false;
+
+        // Photos first: their rows reference the assignment
+        photoService.deletePhotos(photoRepo.findByDeliveryAssignmentId(assignmentId));
+        assignmentRepo.delete(assignment);
+
+        liveUpdates.assignmentsDeleted(List.of(assignmentId));
+        return true;
+    }
+
     public List<DeliveryAssignment> getAllAssignment() {
         return assignmentRepo.findAll();
     }
+
+    public List<DeliveryAssignmentView> searchAssignments(MaterialRequestStatus status, Long projectId, Long driverId,
+                                                          LocalDate from, LocalDate to, Long after, Limit limit) {
+        return assignmentRepo.search(status, projectId, driverId, from, to, after, limit);
+    }
 }
\ No newline at end of file
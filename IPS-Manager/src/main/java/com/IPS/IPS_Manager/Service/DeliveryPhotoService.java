@@ -0,0 +1,204 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.DeliveryPhotoMetadata;
+import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
+import com.IPS.IPS_Manager.Entity.DeliveryPhoto;
+import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
+import com.IPS.IPS_Manager.Enum.PhotoSize;
+import com.IPS.IPS_Manager.Repository.DeliveryPhotoRepo;
+import com.IPS.IPS_Manager.Service.Storage.PhotoResizer;
+import com.IPS.IPS_Manager.Service.Storage.PhotoStorage;
+import com.IPS.IPS_Manager.Service.Storage.StoredPhoto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryPhotoService {
+
+    private final DeliveryPhotoRepo photoRepo;
+    private final DeliveryAssignmentRepo assignmentRepo;
+    private final PhotoStorage photoStorage;
+    private final PhotoResizer photoResizer;
+
+    // Variant keys being generated right now, so concurrent requests do not decode the same photo twice
+    private final Map<String, CompletableFuture<Boolean>> variantsInProgress = new ConcurrentHashMap<>();
+    // Originals ImageIO could not decode; served as they are instead of being decoded again on every request
+    private final Set<String> undecodable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Streams the upload into the photo store and records only its metadata in delivery_photos.
+     */
+    public DeliveryPhoto upload(Long assignmentId, MultipartFile file) throws IOException {
+        DeliveryAssignment assignment = assignmentRepo.findById(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Delivery Assignment not found: " + assignmentId));
+
+        StoredPhoto stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = photoStorage.store(in);
+        }
+
+        DeliveryPhoto deliveryPhoto = DeliveryPhoto.builder()
+                .fileName(file.getOriginalFilename())
+                .fileType(file.getContentType())
+                .storageKey(stored.key())
+                .contentHash(stored.contentHash())
+                .fileSize(stored.size())
+                .deliveryAssignment(assignment)
+                .build();
+
+        try {
+            return photoRepo.save(deliveryPhoto);
+        } catch (RuntimeException e) {
+            deleteBlob(stored.key());
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the photo's content: from the file store, or from BYTEA for rows not migrated yet.
+     */
+    public Resource open(DeliveryPhotoMetadata photo) throws IOException {
+        if (photo.getStorageKey() != null) {
+            return photoStorage.load(photo.getStorageKey());
+        }
+        byte[] legacyData = photoRepo.findById(photo.getId())
+                .map(DeliveryPhoto::getData)
+                .orElse(null);
+        if (legacyData != null) {
+            return new ByteArrayResource(legacyData);
+        }
+        throw new RuntimeException("Photo has no stored content: " + photo.getId());
+    }
+
+    /**
+     * Opens the requested size. Variants are generated from the original on first request and kept
+     * in the photo store, so later requests are plain file reads. Concurrent first requests for the same
+     * variant share one generation. Falls back to the original when the photo is still in BYTEA or its
+     * format cannot be decoded.
+     */
+    public PhotoContent open(DeliveryPhotoMetadata photo, PhotoSize size) throws IOException {
+        String originalType = photo.getFileType() != null ? photo.getFileType() : "image/jpeg";
+        if (size == PhotoSize.ORIGINAL || photo.getStorageKey() == null) {
+            return new PhotoContent(open(photo), originalType);
+        }
+
+        String variantKey = size.variantKey(photo.getStorageKey());
+        if (undecodable.contains(photo.getStorageKey())
+                || !photoStorage.exists(variantKey) && !generateOnce(photo, size, variantKey)) {
+            return new PhotoContent(open(photo), originalType);
+        }
+        return new PhotoContent(photoStorage.load(variantKey), "image/jpeg");
+    }
+
+    // The first caller for a key generates it; callers arriving meanwhile wait for its outcome
+    private boolean generateOnce(DeliveryPhotoMetadata photo, PhotoSize size, String variantKey) throws IOException {
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = variantsInProgress.putIfAbsent(variantKey, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw e;
+            }
+        }
+
+        try {
+            boolean generated = photoStorage.exists(variantKey) || generate(photo, size, variantKey);
+            mine.complete(generated);
+            return generated;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            variantsInProgress.remove(variantKey, mine);
+        }
+    }
+
+    private boolean generate(DeliveryPhotoMetadata photo, PhotoSize size, String variantKey) throws IOException {
+        byte[] resized;
+        try (InputStream in = photoStorage.load(photo.getStorageKey()).getInputStream()) {
+            resized = photoResizer.resizeToJpeg(in, size.getMaxEdge());
+        }
+        if (resized == null) {
+            undecodable.add(photo.getStorageKey());
+            log.warn("⚠️ Photo {} cannot be decoded; serving the original for every size", photo.getId());
+            return false;
+        }
+
+        photoStorage.store(variantKey, new ByteArrayInputStream(resized));
+        log.info("🖼️ Generated {} variant for photo {}", size, photo.getId());
+        return true;
+    }
+
+    /**
+     * Deletes the rows and, once the surrounding transaction commits, their stored files.
+     */
+    public void deletePhotos(List<DeliveryPhoto> photos) {
+        if (photos.isEmpty()) return;
+
+        List<String> keys = photos.stream()
+                .map(DeliveryPhoto::getStorageKey)
+                .filter(Objects::nonNull)
+                .toList();
+        photoRepo.deleteAll(photos);
+        deleteBlobsAfterCommit(keys);
+    }
+
+    /**
+     * Removes every photo of a batch with one bulk DELETE; their files go once the transaction commits.
+     */
+    public void deleteBatchPhotos(String batchId) {
+        List<String> keys = photoRepo.findStorageKeysByBatchId(batchId);
+        photoRepo.deleteByBatchId(batchId);
+        deleteBlobsAfterCommit(keys);
+    }
+
+    private void deleteBlobsAfterCommit(List<String> keys) {
+        if (keys.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.forEach(DeliveryPhotoService.this::deleteBlob);
+                }
+            });
+        } else {
+            keys.forEach(this::deleteBlob);
+        }
+    }
+
+    private void deleteBlob(String key) {
+        for (PhotoSize size : PhotoSize.values()) {
+            String sizeKey = size.variantKey(key);
+            try {
+                photoStorage.delete(sizeKey);
+            } catch (IOException e) {
+                log.warn("⚠️ Could not delete stored photo {}: {}", sizeKey, e.getMessage());
+            }
+        }
+    }
+
+    public record PhotoContent(Resource resource, String contentType) {
+    }
+}
@@ -2,13 +2,27 @@ package com.IPS.IPS_Manager.Service.Excel;
 
 import com.IPS.IPS_Manager.Entity.Material;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.IPS.IPS_Manager.Service.LiveUpdatePublisher;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
@@ -16,90 +30,176 @@ import java.util.*;
 @Service
 public class MaterialExcelService {
 
+    private static final String UPSERT_SQL =
+            "INSERT INTO material (id, name, unit, quantity) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, unit = EXCLUDED.unit, quantity = EXCLUDED.quantity";
+
     @Autowired
     private MaterialRepo materialRepository;
 
-    public Map<String, Object> saveFromExcel(InputStream is) throws IOException {
-        Workbook workbook = new XSSFWorkbook(is);
-        Sheet sheet = workbook.getSheetAt(0);
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
-        int added = 0;
-        int updated = 0;
-        int failed = 0;
-        List<String> errors = new ArrayList<>();
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
-        for (Row row : sheet) {
-            if (row.getRowNum() == 0) continue; // Skip header
+    @Autowired
+    private LiveUpdatePublisher liveUpdatePublisher;
 
-            try {
-                // Read cells safely
-                String id = getCellValueAsString(row, 1);
-                String name = getCellValueAsString(row, 2);
-                String unit = getCellValueAsString(row, 3);
-                int quantity = (int) getCellValueAsNumber(row, 4);
-
-                if (id == null || id.trim().isEmpty()) {
-                    errors.add("Row " + (row.getRowNum() + 1) + ": Missing material code");
-                    failed++;
-                    continue;
-                }
+    @Value("${excel.import.batch-size:500}")
+    private int batchSize;
 
-                // Check if material exists
-                Optional<Material> existing = materialRepository.findById(id);
-
-                if (existing.isPresent()) {
-                    // UPDATE existing material
-                    Material material = existing.get();
-                    material.setName(name);
-                    material.setUnit(unit);
-                    material.setQuantity(quantity);
-                    materialRepository.save(material);
-                    updated++;
-                } else {
-                    // ADD new material
-                    Material material = new Material();
-                    material.setId(id);
-                    material.setName(name);
-                    material.setUnit(unit);
-                    material.setQuantity(quantity);
-                    materialRepository.save(material);
-                    added++;
+    /**
+     * Streams the first sheet with POI's SAX event model, so the workbook is never built in memory,
+     * and upserts rows in JDBC batches (one transaction per batch).
+     * Columns: 1 = code, 2 = name, 3 = unit, 4 = quantity. Row 0 is the header.
+     */
+    public Map<String, Object> saveFromExcel(InputStream is) throws IOException {
+        ImportRun run = new ImportRun(new HashSet<>(materialRepository.findAllIds()));
+
+        try (OPCPackage pkg = OPCPackage.open(is)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, run, new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
                 }
-
-            } catch (Exception e) {
-                errors.add("Row " + (row.getRowNum() + 1) + ": " + e.getMessage());
-                failed++;
             }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not read Excel file: " + e.getMessage(), e);
         }
 
-        workbook.close();
+        run.flush();
 
         // Create response
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
-        response.put("added", added);
-        response.put("updated", updated);
-        response.put("failed", failed);
-        response.put("errors", errors);
+        response.put("added", run.added);
+        response.put("updated", run.updated);
+        response.put("failed", run.failed);
+        response.put("errors", run.errors);
 
         return response;
     }
 
-    private String getCellValueAsString(Row row, int cellIndex) {
-        try {
-            if (row.getCell(cellIndex) == null) return "";
-            return row.getCell(cellIndex).getStringCellValue();
-        } catch (Exception e) {
-            return "";
+    /**
+     * Collects cells row by row and writes them out every {@code batchSize} materials.
+     */
+    private class ImportRun implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Set<String> knownIds;
+
+        // Keyed by id so a code repeated inside one batch collapses to its last row (same as row-by-row saves)
+        private final Map<String, Material> pending = new LinkedHashMap<>();
+        private final List<Integer> pendingRows = new ArrayList<>();
+        private final Set<String> pendingNew = new HashSet<>();
+        private int pendingUpdated = 0;
+
+        private final String[] cells = new String[5];
+
+        int added = 0;
+        int updated = 0;
+        int failed = 0;
+        final List<String> errors = new ArrayList<>();
+
+        ImportRun(Set<String> knownIds) {
+            this.knownIds = knownIds;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(cells, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < cells.length) {
+                cells[column] = formattedValue;
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) return; // Skip header
+
+            String id = cells[1] != null ? cells[1].trim() : "";
+            if (id.isEmpty()) {
+                errors.add("Row " + (rowNum + 1) + ": Missing material code");
+                failed++;
+                return;
+            }
+
+            Material material = new Material();
+            material.setId(id);
+            material.setName(cells[2] != null ? cells[2] : "");
+            material.setUnit(cells[3] != null ? cells[3] : "");
+            material.setQuantity((int) parseNumber(cells[4]));
+
+            if (knownIds.add(id)) {
+                pendingNew.add(id);
+                added++;
+            } else {
+                pendingUpdated++;
+                updated++;
+            }
+            pending.put(id, material);
+            pendingRows.add(rowNum);
+
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+
+            List<Material> batch = new ArrayList<>(pending.values());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, m) -> {
+                            ps.setString(1, m.getId());
+                            ps.setString(2, m.getName());
+                            ps.setString(3, m.getUnit());
+                            ps.setInt(4, m.getQuantity());
+                        }));
+            } catch (Exception e) {
+                // The whole batch rolled back: move its rows from added/updated to failed
+                added -= pendingNew.size();
+                updated -= pendingUpdated;
+                knownIds.removeAll(pendingNew);
+                for (int rowNum : pendingRows) {
+                    failed++;
+                    errors.add("Row " + (rowNum + 1) + ": " + e.getMessage());
+                }
+                clearPending();
+                return;
+            }
+
+            // Committed: the board and the other nodes pick up the new stock levels
+            liveUpdatePublisher.materialsStockChanged(pending.keySet());
+            clearPending();
+        }
+
+        private void clearPending() {
+            pending.clear();
+            pendingRows.clear();
+            pendingNew.clear();
+            pendingUpdated = 0;
         }
     }
 
-    private double getCellValueAsNumber(Row row, int cellIndex) {
+    private double parseNumber(String value) {
+        if (value == null || value.isBlank()) return 0;
         try {
-            if (row.getCell(cellIndex) == null) return 0;
-            return row.getCell(cellIndex).getNumericCellValue();
-        } catch (Exception e) {
+            return Double.parseDouble(value.replace(",", "").trim());
+        } catch (NumberFormatException e) {
             return 0;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,17 @@
 package com.IPS.IPS_Manager.Service.Excel;
 
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.Role;
 import com.IPS.IPS_Manager.Repository.UserRepo;
+import com.IPS.IPS_Manager.Service.PasswordHashingService;
+import com.IPS.IPS_Manager.Service.PushNotificationService;
+import com.IPS.IPS_Manager.Service.UserPrincipalCache;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -22,13 +26,26 @@ public class UserExcelService {
     private UserRepo userRepo;
 
     @Autowired
-    private PasswordEncoder encoder;
+    private PasswordHashingService hashingService;
+
+    @Autowired
+    private PushNotificationService pushNotificationService;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Value("${excel.import.batch-size:500}")
+    private int batchSize;
+
+    private static final String DEFAULT_PASSWORD = "changeme123";
 
     // Valid roles
-    private static final Set<String> VALID_ROLES = Set.of(
-            "driver", "project_manager", "head_driver", "admin", "dev"
-    );
+    private static final Set<String> VALID_ROLES = Role.names();
 
+    /**
+     * Imports users in three passes: validate and stage every row, hash all passwords at once on
+     * the hashing pool (the shared default password only once), then save in batches.
+     */
     public Map<String, Object> saveFromExcel(InputStream is) throws IOException {
         Workbook workbook = new XSSFWorkbook(is);
         Sheet sheet = workbook.getSheetAt(0);
@@ -37,6 +54,7 @@ public class UserExcelService {
         int updated = 0;
         int failed = 0;
         List<String> errors = new ArrayList<>();
+        List<ImportRow> rows = new ArrayList<>();
 
         for (Row row : sheet) {
             if (row.getRowNum() == 0) continue; // Skip header
@@ -86,40 +104,7 @@ public class UserExcelService {
                     continue;
                 }
 
-                // Check if user exists by email
-                Optional<Users> existingUser = userRepo.findByMail(email);
-
-                if (existingUser.isPresent()) {
-                    // UPDATE existing user
-                    Users user = existingUser.get();
-                    user.setName(name);
-                    user.setPhone(phone);
-                    user.setRoles(processedRoles); // ✅ FIXED: Saving the new Set directly
-
-                    // Only update password if provided in Excel
-                    if (password != null && !password.trim().isEmpty()) {
-                        user.setPassword(encoder.encode(password));
-                    }
-
-                    userRepo.save(user);
-                    updated++;
-                } else {
-                    // ADD new user
-                    Users user = new Users();
-                    user.setName(name);
-                    user.setMail(email);
-                    user.setPhone(phone);
-                    user.setRoles(processedRoles); // ✅ FIXED: Assigning the Set to the new entity
-
-                    // Set password (default to "changeme123" if not provided)
-                    String finalPassword = (password != null && !password.trim().isEmpty())
-                            ? password
-                            : "changeme123";
-                    user.setPassword(encoder.encode(finalPassword));
-
-                    userRepo.save(user);
-                    added++;
-                }
+                rows.add(new ImportRow(row.getRowNum(), name, email, phone, processedRoles, password));
 
             } catch (Exception e) {
                 errors.add("Row " + (row.getRowNum() + 1) + ": " + e.getMessage());
@@ -129,6 +114,89 @@ public class UserExcelService {
 
         workbook.close();
 
+        // One query for every user the sheet touches, instead of findByMail per row
+        Map<String, StagedUser> staged = new LinkedHashMap<>();
+        if (!rows.isEmpty()) userRepo.findByMailIn(rows.stream().map(ImportRow::email).distinct().toList())
+                .forEach(user -> staged.putIfAbsent(user.getMail(), new StagedUser(user, false)));
+
+        // Raw passwords to hash, and which user each one belongs to (applied in row order)
+        List<String> rawPasswords = new ArrayList<>();
+        List<StagedUser> passwordOwners = new ArrayList<>();
+        List<StagedUser> needDefault = new ArrayList<>();
+
+        for (ImportRow row : rows) {
+            StagedUser target = staged.get(row.email());
+            if (target == null) {
+                // ADD new user
+                Users user = new Users();
+                user.setMail(row.email());
+                target = new StagedUser(user, true);
+                staged.put(row.email(), target);
+                added++;
+            } else {
+                // UPDATE existing user (or a new one already seen earlier in the sheet)
+                updated++;
+            }
+
+            target.user.setName(row.name());
+            target.user.setPhone(row.phone());
+            target.user.setRoles(row.roles()); // ✅ FIXED: Saving the new Set directly
+            target.rows.add(row.rowNum());
+
+            if (row.password() != null && !row.password().trim().isEmpty()) {
+                rawPasswords.add(row.password());
+                passwordOwners.add(target);
+                needDefault.remove(target);
+            } else if (target.isNew && target.rows.size() == 1) {
+                // Set password (default to "changeme123" if not provided)
+                needDefault.add(target);
+            }
+        }
+
+        if (!needDefault.isEmpty()) {
+            rawPasswords.add(DEFAULT_PASSWORD);
+        }
+        List<String> hashes = hashingService.encodeAll(rawPasswords);
+        for (int i = 0; i < passwordOwners.size(); i++) {
+            passwordOwners.get(i).user.setPassword(hashes.get(i));
+        }
+        if (!needDefault.isEmpty()) {
+            String defaultHash = hashes.get(hashes.size() - 1);
+            needDefault.forEach(target -> target.user.setPassword(defaultHash));
+        }
+
+        // Save in batches; a failing batch is retried row by row so errors still point at rows
+        List<StagedUser> toSave = new ArrayList<>(staged.values());
+        toSave.removeIf(target -> target.rows.isEmpty());
+        for (int from = 0; from < toSave.size(); from += batchSize) {
+            List<StagedUser> chunk = toSave.subList(from, Math.min(from + batchSize, toSave.size()));
+            try {
+                userRepo.saveAll(chunk.stream().map(target -> target.user).toList());
+            } catch (Exception batchError) {
+                for (StagedUser target : chunk) {
+                    if (target.isNew) target.user.setId(null); // the rolled-back insert never happened
+                    try {
+                        userRepo.save(target.user);
+                    } catch (Exception e) {
+                        for (int rowNum : target.rows) {
+                            errors.add("Row " + (rowNum + 1) + ": " + e.getMessage());
+                            failed++;
+                        }
+                        if (target.isNew) {
+                            added--;
+                            updated -= target.rows.size() - 1;
+                        } else {
+                            updated -= target.rows.size();
+                        }
+                    }
+                }
+            }
+        }
+
+        // Imported rows may have changed who holds which role
+        pushNotificationService.evictRoleCache();
+        principalCache.invalidateAll();
+
         // Create response
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -140,6 +208,19 @@ public class UserExcelService {
         return response;
     }
 
+    private record ImportRow(int rowNum, String name, String email, String phone, Set<String> roles, String password) {}
+
+    private static class StagedUser {
+        final Users user;
+        final boolean isNew;
+        final List<Integer> rows = new ArrayList<>();
+
+        StagedUser(Users user, boolean isNew) {
+            this.user = user;
+            this.isNew = isNew;
+        }
+    }
+
     private String getCellValueAsString(Row row, int cellIndex) {
         try {
             if (row.getCell(cellIndex) == null) {
@@ -1,10 +1,15 @@
 package com.IPS.IPS_Manager.Service;
 
 import com.IPS.IPS_Manager.Entity.FailedRequest;
+import com.IPS.IPS_Manager.Enum.FailedRequestType;
 import com.IPS.IPS_Manager.Repository.FailedRequestRepo;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -21,6 +26,46 @@ public class FailedRequestService {
         return failedRequestRepo.save(request);
     }
 
+    /**
+     * Saved in the caller's transaction: a separate one would need a second pooled connection while
+     * the caller holds its first, which exhausts the pool under concurrent shortages. The caller keeps
+     * the record by not rolling back on {@link StockShortageException}.
+     */
+    @Transactional
+    public FailedRequest recordStockShortage(String materialId, int requestedQuantity, int availableQuantity,
+                                             Long driverId, LocalDate deliveryDate) {
+        FailedRequest failed = new FailedRequest();
+        failed.setType(FailedRequestType.STOCK_SHORTAGE);
+        failed.setMaterialId(materialId);
+        failed.setRequestedQuantity(requestedQuantity);
+        failed.setAvailableQuantity(availableQuantity);
+        failed.setDriverId(driverId);
+        failed.setDeliveryDate(deliveryDate);
+        return failedRequestRepo.save(failed);
+    }
+
+    /**
+     * Same as {@link #recordStockShortage}, for a delivery that would push a project past its quota;
+     * callers keep the record by not rolling back on {@link QuotaExceededException}.
+     */
+    @Transactional
+    public FailedRequest recordQuotaExceeded(String materialId, int requestedQuantity, int availableQuantity,
+                                             Long projectId) {
+        FailedRequest failed = new FailedRequest();
+        failed.setType(FailedRequestType.QUOTA_EXCEEDED);
+        failed.setMaterialId(materialId);
+        failed.setRequestedQuantity(requestedQuantity);
+        failed.setAvailableQuantity(availableQuantity);
+        failed.setProjectId(projectId);
+        return failedRequestRepo.save(failed);
+    }
+
+    public List<FailedRequest> search(FailedRequestType type, Long projectId, Long driverId,
+                                      LocalDateTime from, LocalDateTime to,
+                                      LocalDateTime afterCreatedAt, Long afterId, Limit limit) {
+        return failedRequestRepo.search(type, projectId, driverId, from, to, afterCreatedAt, afterId, limit);
+    }
+
     public List<FailedRequest> getAll() {
         return failedRequestRepo.findAllByOrderByCreatedAtDesc();
     }
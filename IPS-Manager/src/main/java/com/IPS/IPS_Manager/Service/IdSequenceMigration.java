@@ -0,0 +1,64 @@
+package com.IPS.IPS_Manager.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves each entity's id sequence past the ids already in its table. Entities used IDENTITY
+ * columns before, so the pooled sequences the schema update creates start at 1 and would hand
+ * out ids that are taken. Runs before the web server takes requests and only ever moves a
+ * sequence forward, so it is a no-op on every start after the first.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceMigration {
+
+    // sequence -> table, matching the @SequenceGenerator on each entity
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "delivery_assignment_seq", "delivery_assignment",
+            "delivery_history_seq", "delivery_history",
+            "delivery_photos_seq", "delivery_photos",
+            "failed_requests_seq", "failed_requests",
+            "material_request_seq", "material_request",
+            "project_seq", "project",
+            "project_material_seq", "project_material",
+            "push_subscriptions_seq", "push_subscriptions",
+            "users_seq", "users"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        SEQUENCES.forEach(this::catchUp);
+    }
+
+    private void catchUp(String sequence, String table) {
+        Long increment = jdbcTemplate.query(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, sequence);
+        if (increment == null) {
+            log.warn("⚠️ Sequence {} not found, skipping id catch-up for {}", sequence, table);
+            return;
+        }
+
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        long nextValue = Boolean.TRUE.equals(state.get("is_called")) ? lastValue + increment : lastValue;
+
+        // The pooled optimizer turns nextval = n into the block (n - increment, n]
+        if (nextValue - increment >= maxId) return;
+
+        jdbcTemplate.queryForObject("SELECT setval(CAST(? AS regclass), ?, false)", Long.class, sequence, maxId + increment);
+        log.info("🔁 Moved {} past existing ids of {} (max id {})", sequence, table, maxId);
+    }
+}
@@ -1,17 +1,27 @@
 package com.IPS.IPS_Manager.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
@@ -20,24 +30,71 @@ import java.util.Map;
 import java.util.function.Function;
 
 @Service
-
+@Slf4j
 public class JWTService {
 
+    // Built once: decoding the secret and building a parser per call showed up on every request
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    /**
+     * The signing key comes from {@code jwt.secret} (base64) when set. Otherwise it is read from
+     * {@code jwt.key-file}, which is generated on first start, so tokens survive restarts and every
+     * node pointed at the same file or secret accepts the same tokens.
+     */
+    @Autowired
+    public JWTService(@Value("${jwt.secret:}") String secret,
+                      @Value("${jwt.key-file:secrets/jwt.key}") String keyFile) {
+        this(Keys.hmacShaKeyFor(Decoders.BASE64.decode(
+                secret != null && !secret.isBlank() ? secret.trim() : loadOrCreateSecret(Path.of(keyFile)))));
+    }
 
-    private String secretkey = "";
-
-    public JWTService() {
+    public JWTService(SecretKey key) {
+        this.key = key;
+        this.parser = Jwts.parser().verifyWith(key).build();
+    }
 
+    private static String loadOrCreateSecret(Path keyFile) {
         try {
+            if (Files.exists(keyFile)) {
+                return Files.readString(keyFile, StandardCharsets.US_ASCII).trim();
+            }
+
             KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
-            SecretKey sk = keyGen.generateKey();
-            secretkey = Base64.getEncoder().encodeToString(sk.getEncoded());
+            String secret = Base64.getEncoder().encodeToString(keyGen.generateKey().getEncoded());
+
+            if (keyFile.getParent() != null) Files.createDirectories(keyFile.getParent());
+            createOwnerOnly(keyFile);
+            Files.writeString(keyFile, secret, StandardCharsets.US_ASCII, StandardOpenOption.TRUNCATE_EXISTING);
+            log.info("🔑 Generated new JWT signing key at {}", keyFile.toAbsolutePath());
+            return secret;
+        } catch (FileAlreadyExistsException e) {
+            // Another node sharing the directory created it first
+            return loadOrCreateSecret(keyFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read or create JWT key file " + keyFile, e);
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException(e);
         }
     }
 
 
+    // The file is owner-only from the moment it exists: the secret is never readable under the default umask
+    private static void createOwnerOnly(Path keyFile) throws IOException {
+        try {
+            Files.createFile(keyFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException nonPosix) {
+            // Non-POSIX file system (Windows): create it empty, then restrict to the owner before writing
+            Files.newByteChannel(keyFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+            File file = keyFile.toFile();
+            boolean restricted = file.setReadable(false, false) && file.setReadable(true, true)
+                    && file.setWritable(false, false) && file.setWritable(true, true);
+            if (!restricted) {
+                log.warn("⚠️ Could not restrict {} to its owner; protect it with the directory's ACLs", keyFile);
+            }
+        }
+    }
+
     // 🔑 Generate normal auth token
     public String generateToken(String username) {
         Map<String, Object> claims = new HashMap<>();
@@ -48,7 +105,7 @@ public class JWTService {
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 1000L * 60 * 60 * 24))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
 
     }
@@ -61,7 +118,7 @@ public class JWTService {
                 .claim("type", "reset")
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + 1000L * 60 * 15)) // 15 min
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
@@ -74,11 +131,6 @@ public class JWTService {
         return claims.getSubject();
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretkey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String extractUserName(String token) {
         // extract the username from jwt token
         return extractClaim(token, Claims::getSubject);
@@ -89,25 +141,21 @@ public class JWTService {
         return claimResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Verifies the signature and expiry once and returns the claims, for callers that need several of them.
+     */
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return validateToken(extractAllClaims(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Same checks as validateToken, against claims that were already parsed
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
     }
 }
 
@@ -0,0 +1,203 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.ClusterEvent;
+import com.IPS.IPS_Manager.DTO.DeliveryAssignmentView;
+import com.IPS.IPS_Manager.DTO.LiveUpdate;
+import com.IPS.IPS_Manager.Enum.ClusterEventType;
+import com.IPS.IPS_Manager.Enum.Role;
+import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
+import com.IPS.IPS_Manager.Repository.MaterialRepo;
+import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pushes changed requests, assignments and batches to STOMP subscribers once the surrounding
+ * transaction commits. Rows are re-read after the commit, so subscribers only ever see committed state.
+ * <p>
+ * Topics (subscription rules in StompAuthInterceptor):
+ * <ul>
+ *   <li>{@code /topic/role.<role>.<stream>}: every change, for head drivers and admins</li>
+ *   <li>{@code /topic/user.<id>.<stream>}: changes to the user's own deliveries (driver)
+ *       or own projects (project manager)</li>
+ * </ul>
+ * Streams are {@code requests}, {@code assignments}, {@code batches} and {@code materials}
+ * (stock levels, board only).
+ * <p>
+ * Each change is also put on the cluster event bus, and changes from other nodes are fanned out
+ * to this node's subscribers the same way. After a cluster resync the board is told to refetch.
+ */
+@Component
+@RequiredArgsConstructor
+public class LiveUpdatePublisher {
+
+    public static final String REQUESTS = "requests";
+    public static final String ASSIGNMENTS = "assignments";
+    public static final String BATCHES = "batches";
+    public static final String MATERIALS = "materials";
+
+    // Roles that watch the whole dispatch board
+    private static final List<Role> BOARD_ROLES = List.of(Role.HEAD_DRIVER, Role.ADMIN);
+
+    private final SimpMessagingTemplate messaging;
+    private final NotificationDispatcher dispatcher;
+    private final ClusterEventBus clusterEventBus;
+    private final MaterialRequestRepo requestRepo;
+    private final DeliveryAssignmentRepo assignmentRepo;
+    private final MaterialRepo materialRepo;
+
+    public void requestChanged(Long requestId) {
+        dispatcher.dispatchAfterCommit("live request " + requestId, () -> sendRequests(List.of(requestId)));
+        clusterEventBus.publish(ClusterEventType.REQUEST_CHANGED, requestId);
+    }
+
+    public void assignmentChanged(Long assignmentId) {
+        assignmentsChanged(List.of(assignmentId));
+    }
+
+    public void assignmentsChanged(Collection<Long> assignmentIds) {
+        if (assignmentIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(assignmentIds);
+
+        dispatcher.dispatchAfterCommit("live assignments " + ids, () -> sendAssignments(ids));
+        clusterEventBus.publish(ClusterEventType.ASSIGNMENTS_CHANGED, ids);
+    }
+
+    // Deleted rows can't be routed to their driver or manager any more; the board gets the ids
+    public void assignmentsDeleted(Collection<Long> assignmentIds) {
+        if (assignmentIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(assignmentIds);
+
+        dispatcher.dispatchAfterCommit("live assignments deleted " + ids, () -> sendAssignmentDeletes(ids));
+        clusterEventBus.publish(ClusterEventType.ASSIGNMENTS_DELETED, ids);
+    }
+
+    // Batch rows change through their assignments; this only tells the queue a batch appeared/left
+    public void batchChanged(String batchId, LiveUpdate.Action action) {
+        dispatcher.dispatchAfterCommit("live batch " + batchId, () ->
+                toBoard(BATCHES, new LiveUpdate(BATCHES, action, batchId, null)));
+        clusterEventBus.publish(ClusterEventType.BATCH_CHANGED, List.of(batchId, action));
+    }
+
+    public void materialStockChanged(String materialId) {
+        materialsStockChanged(List.of(materialId));
+    }
+
+    // Bulk imports; a key list too long for one NOTIFY goes out empty, which other nodes treat as "refetch"
+    public void materialsStockChanged(Collection<String> materialIds) {
+        if (materialIds.isEmpty()) return;
+        List<String> ids = List.copyOf(materialIds);
+
+        dispatcher.dispatchAfterCommit("live materials " + ids.size(), () -> sendMaterials(ids));
+        clusterEventBus.publish(ClusterEventType.MATERIAL_STOCK_CHANGED, ids);
+    }
+
+    // Another node's change: fan out to the subscribers connected here, don't publish it again
+    @EventListener
+    public void onRemoteEvent(ClusterEvent event) {
+        List<String> keys = event.keys();
+        switch (event.type()) {
+            case REQUEST_CHANGED -> dispatch(event, () -> sendRequests(toLongs(keys)));
+            case ASSIGNMENTS_CHANGED -> dispatch(event, () -> sendAssignments(toLongs(keys)));
+            case ASSIGNMENTS_DELETED -> dispatch(event, () -> sendAssignmentDeletes(toLongs(keys)));
+            case BATCH_CHANGED -> {
+                if (keys.size() == 2) {
+                    LiveUpdate.Action action = LiveUpdate.Action.valueOf(keys.get(1));
+                    dispatch(event, () -> toBoard(BATCHES, new LiveUpdate(BATCHES, action, keys.get(0), null)));
+                }
+            }
+            case MATERIAL_STOCK_CHANGED -> dispatch(event, () -> sendMaterials(keys));
+            default -> { }
+        }
+    }
+
+    @EventListener
+    public void onResync(ClusterEvent.Resync resync) {
+        dispatcher.dispatchAfterCommit("live resync", () -> {
+            for (String stream : List.of(REQUESTS, ASSIGNMENTS, BATCHES, MATERIALS)) {
+                toBoard(stream, new LiveUpdate(stream, LiveUpdate.Action.RESYNC, null, null));
+            }
+        });
+    }
+
+    private void dispatch(ClusterEvent event, Runnable fanOut) {
+        // Keys were dropped because the list was too long; clients have to refetch
+        if (event.keys().isEmpty()) {
+            onResync(new ClusterEvent.Resync(event.type() + " without keys"));
+            return;
+        }
+        dispatcher.dispatchAfterCommit("live remote " + event.type(), fanOut);
+    }
+
+    private void sendRequests(Collection<Long> requestIds) {
+        Map<Long, Long> managers = projectManagers(requestIds);
+        for (Long requestId : requestIds) {
+            requestRepo.findViewById(requestId).ifPresent(view -> {
+                LiveUpdate update = LiveUpdate.upsert(REQUESTS, requestId, view);
+                toBoard(REQUESTS, update);
+                Long managerId = managers.get(requestId);
+                if (managerId != null) {
+                    toUser(managerId, REQUESTS, update);
+                }
+            });
+        }
+    }
+
+    private void sendAssignments(List<Long> ids) {
+        List<DeliveryAssignmentView> views = assignmentRepo.findViewsByIdIn(ids);
+        Map<Long, Long> managers = projectManagers(
+                views.stream().map(view -> view.materialRequest().id()).distinct().toList());
+
+        for (DeliveryAssignmentView view : views) {
+            LiveUpdate update = LiveUpdate.upsert(ASSIGNMENTS, view.id(), view);
+            toBoard(ASSIGNMENTS, update);
+            if (view.driver() != null) {
+                toUser(view.driver().id(), ASSIGNMENTS, update);
+            }
+            Long managerId = managers.get(view.materialRequest().id());
+            if (managerId != null) {
+                toUser(managerId, ASSIGNMENTS, update);
+            }
+        }
+    }
+
+    private void sendAssignmentDeletes(List<Long> ids) {
+        ids.forEach(id -> toBoard(ASSIGNMENTS, LiveUpdate.delete(ASSIGNMENTS, id)));
+    }
+
+    private void sendMaterials(Collection<String> materialIds) {
+        for (Object[] row : materialRepo.findQuantitiesByIdIn(materialIds)) {
+            String materialId = (String) row[0];
+            toBoard(MATERIALS, LiveUpdate.upsert(MATERIALS, materialId, Map.of("id", materialId, "quantity", row[1])));
+        }
+    }
+
+    private static List<Long> toLongs(List<String> keys) {
+        return keys.stream().map(Long::valueOf).toList();
+    }
+
+    private Map<Long, Long> projectManagers(Collection<Long> requestIds) {
+        Map<Long, Long> managers = new HashMap<>();
+        for (Object[] row : requestRepo.findProjectManagerIds(requestIds)) {
+            managers.put((Long) row[0], (Long) row[1]);
+        }
+        return managers;
+    }
+
+    private void toBoard(String stream, LiveUpdate update) {
+        for (Role role : BOARD_ROLES) {
+            messaging.convertAndSend("/topic/role." + role.getName() + "." + stream, update);
+        }
+    }
+
+    private void toUser(Long userId, String stream, LiveUpdate update) {
+        messaging.convertAndSend("/topic/user." + userId + "." + stream, update);
+    }
+}
@@ -0,0 +1,190 @@
+package com.IPS.IPS_Manager.Service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Runs login password checks (BCrypt) on a small dedicated pool so a burst of logins
+ * can't take every servlet thread and core. When the pool and its wait queue are full the
+ * caller gets 429 straight away; a check that waits too long gets 503.
+ * Recent successful logins are remembered briefly, so clients that log in again and again
+ * with the same password skip BCrypt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoginVerifier {
+
+    private final AuthenticationManager authManager;
+    private final UserPrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.login.threads:0}")
+    private int configuredThreads;
+
+    @Value("${security.login.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.login.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${security.login.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    @Value("${security.login.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    // Random per process, so the remembered digests are useless outside this JVM
+    private final byte[] pepper = new SecureRandom().generateSeed(32);
+    private final Map<String, RecentLogin> recentLogins = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * @param passwordDigest salted SHA-256 of the password that was accepted
+     * @param storedHash     the user's BCrypt hash at that time; a password change makes it differ
+     */
+    private record RecentLogin(byte[] passwordDigest, String storedHash, long expiresAt) {}
+
+    @PostConstruct
+    public void init() {
+        int threads = configuredThreads > 0
+                ? configuredThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("login-verify-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("auth.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a verification thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Logins currently being verified")
+                .register(meterRegistry);
+
+        log.info("✅ Login verifier ready (threads={}, queue={})", threads, queueCapacity);
+    }
+
+    /**
+     * Returns true when the credentials are valid. Bad credentials throw the usual
+     * {@link AuthenticationException}; overload throws 429 / 503.
+     */
+    public boolean verify(String mail, String password) {
+        long startedAt = System.nanoTime();
+        String outcome = "failure";
+        try {
+            byte[] digest = digest(mail, password);
+            if (isRecentLogin(mail, digest)) {
+                outcome = "cached";
+                return true;
+            }
+
+            Future<Authentication> result;
+            try {
+                result = executor.submit(() -> authManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(mail, password)));
+            } catch (RejectedExecutionException e) {
+                outcome = "rejected";
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many logins in progress, try again shortly");
+            }
+
+            Authentication authentication;
+            try {
+                authentication = result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                result.cancel(true);
+                outcome = "timeout";
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Login is taking too long, try again shortly");
+            } catch (InterruptedException e) {
+                result.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Login interrupted");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AuthenticationException authError) throw authError;
+                if (e.getCause() instanceof RuntimeException runtimeError) throw runtimeError;
+                throw new RuntimeException(e.getCause());
+            }
+
+            if (authentication.isAuthenticated()) {
+                remember(mail, digest);
+                outcome = "success";
+                return true;
+            }
+            return false;
+        } finally {
+            Timer.builder("auth.login.latency")
+                    .description("Time to answer a login, including the wait for a verification thread")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean isRecentLogin(String mail, byte[] digest) {
+        RecentLogin recent = recentLogins.get(mail);
+        if (recent == null) return false;
+        if (System.nanoTime() - recent.expiresAt() >= 0) {
+            recentLogins.remove(mail, recent);
+            return false;
+        }
+        if (!MessageDigest.isEqual(recent.passwordDigest(), digest)) return false;
+
+        // The principal cache is invalidated on password changes, so this sees the current hash
+        UserDetails current = principalCache.get(mail);
+        return recent.storedHash().equals(current.getPassword());
+    }
+
+    private void remember(String mail, byte[] digest) {
+        long now = System.nanoTime();
+        if (recentLogins.size() >= cacheMaxSize) {
+            recentLogins.values().removeIf(r -> now - r.expiresAt() >= 0);
+            if (recentLogins.size() >= cacheMaxSize) recentLogins.clear();
+        }
+        String storedHash = principalCache.get(mail).getPassword();
+        recentLogins.put(mail, new RecentLogin(digest, storedHash, now + cacheTtlSeconds * 1_000_000_000L));
+    }
+
+    private byte[] digest(String mail, String password) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(pepper);
+            sha256.update(String.valueOf(mail).getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+            sha256.update(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+            return sha256.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,44 +1,251 @@
 package com.IPS.IPS_Manager.Service;
 
-
-import com.IPS.IPS_Manager.Entity.DeliveryAssignment;
-import com.IPS.IPS_Manager.Entity.Project;
-import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
-import com.IPS.IPS_Manager.Repository.DeliveryAssignmentRepo;
-import com.IPS.IPS_Manager.Repository.ProjectRepo;
-import org.checkerframework.checker.units.qual.A;
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends mail through a bounded queue drained by a few sender threads. Each sender takes whatever
+ * has piled up (up to {@code max-batch}, waiting {@code linger-ms} for more) and hands it to the
+ * multi-message {@code JavaMailSender.send(...)}, so a burst goes over one SMTP/STARTTLS session
+ * instead of one session per mail.
+ */
 @Service
+@Slf4j
 public class MailService {
-    @Autowired
-    private JavaMailSender mailSender;
 
+    public static final MailTemplate LOGIN_NOTIFICATION = MailTemplate.compile("Login Notification",
+            "Hello {name},\n\nYou have just logged into your account.");
 
-    @Autowired
-    private DeliveryAssignmentRepo assignmentRepo;
+    public static final MailTemplate PASSWORD_RESET = MailTemplate.compile("Password Reset Request",
+            "Click the following link to reset your password (valid 15 minutes):\n\n{link}");
 
+    public static final MailTemplate ASSIGNMENT_CREATED = MailTemplate.compile("🚚 New Delivery Assignment Assigned",
+            "Hello {driver},\n\nYou have been assigned a new delivery task.\n\n" +
+                    "• Material: {quantity} x {material}\n" +
+                    "• Destination Project: {project}\n" +
+                    "• Scheduled Date: {date}\n\n" +
+                    "Best regards,\nIPS Fleet Dispatch Team");
 
-    public void sendLoginNotification(String toEmail, String username) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("Login Notification");
-        message.setText("Hello " + username + ",\n\nYou have just logged into your account.");
-        message.setFrom("mate.mamaladze@gmail.com");
+    public static final MailTemplate ASSIGNMENT_STATUS_CHANGED = MailTemplate.compile("🚚 Delivery Assignment Update",
+            "Hello {driver},\n\n" +
+                    "Your assigned delivery target status has changed to: {status}.\n\n" +
+                    "Please review your app context queue details.\n\n" +
+                    "Best regards,\nIPS Dispatch Team");
+
+    public static final MailTemplate DELIVERY_COMPLETED = MailTemplate.compile("📋 Material Delivery Notification: Completed",
+            "Hello {manager},\n\nYour materials have arrived safely at the job site.\n\n" +
+                    "• Project: {project}\n" +
+                    "• Item Delivered: {quantity} x {material}\n" +
+                    "• Driver: {driver}\n\n" +
+                    "Best regards,\nIPS System Management");
+
+    private record Outgoing(SimpleMailMessage message, CompletableFuture<Void> done, long queuedAt) {}
+
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+    private final String from;
+    private final int maxBatch;
+    private final long lingerMs;
+    private final int senders;
+    private final long sendTimeoutMs;
+    private final BlockingQueue<Outgoing> queue;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
 
-        mailSender.send(message);
+    private Timer sendLatency;
+    private Timer batchDuration;
+    private DistributionSummary batchSize;
+    private Counter failed;
+    private Counter rejected;
+
+    public MailService(JavaMailSender mailSender, MeterRegistry meterRegistry,
+                       @Value("${mail.from:mate.mamaladze@gmail.com}") String from,
+                       @Value("${mail.queue.capacity:500}") int queueCapacity,
+                       @Value("${mail.queue.max-batch:50}") int maxBatch,
+                       @Value("${mail.queue.linger-ms:10}") long lingerMs,
+                       @Value("${mail.queue.senders:1}") int senders,
+                       @Value("${mail.send.timeout-ms:60000}") long sendTimeoutMs) {
+        this.mailSender = mailSender;
+        this.meterRegistry = meterRegistry;
+        this.from = from;
+        this.maxBatch = maxBatch;
+        this.lingerMs = lingerMs;
+        this.senders = senders;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
     }
 
-    public void sendMail(String toEmail, String subject, String body) {
+    @PostConstruct
+    public void start() {
+        Gauge.builder("mail.queue.depth", queue, BlockingQueue::size)
+                .description("Mails waiting for a sender")
+                .register(meterRegistry);
+        sendLatency = Timer.builder("mail.send.latency")
+                .description("Time from queueing a mail until the SMTP server accepted it")
+                .register(meterRegistry);
+        batchDuration = Timer.builder("mail.batch.duration")
+                .description("Time spent on one SMTP session, connect to quit")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("mail.batch.size")
+                .description("Mails sent per SMTP session")
+                .register(meterRegistry);
+        failed = Counter.builder("mail.send.failed")
+                .description("Mails the SMTP server did not accept")
+                .register(meterRegistry);
+        rejected = Counter.builder("mail.queue.rejected")
+                .description("Mails refused because the queue was full or shutting down")
+                .register(meterRegistry);
+
+        running = true;
+        // Platform threads: JavaMail blocks on socket reads inside synchronized methods, which would
+        // pin a virtual thread's carrier for the whole SMTP session
+        for (int i = 0; i < senders; i++) {
+            threads.add(Thread.ofPlatform().name("mail-sender-" + i).daemon().start(this::run));
+        }
+        log.info("✅ Mail queue ready (senders={}, batch={}, capacity={})",
+                senders, maxBatch, queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) thread.join(30_000);
+
+        List<Outgoing> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(o -> o.done().completeExceptionally(new RejectedExecutionException("Mail service stopped")));
+        if (!left.isEmpty()) log.warn("🛑 Mail service stopped, {} queued mail(s) not sent", left.size());
+    }
+
+    /**
+     * Queues a mail; the future completes once the SMTP server accepted it, or exceptionally
+     * when it was refused or the queue is full.
+     */
+    public CompletableFuture<Void> submit(String toEmail, String subject, String body) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(toEmail);
         message.setSubject(subject);
         message.setText(body);
-        message.setFrom("mate.mamaladze@gmail.com");
+        message.setFrom(from);
+
+        Outgoing outgoing = new Outgoing(message, new CompletableFuture<>(), System.nanoTime());
+        if (!running || !queue.offer(outgoing)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Mail queue full"));
+        }
+        return outgoing.done();
+    }
+
+    public CompletableFuture<Void> submit(String toEmail, MailTemplate template, Map<String, ?> values) {
+        return submit(toEmail, template.subject(), template.render(values));
+    }
+
+    /**
+     * Queues the mail and waits until it was sent, at most {@code mail.send.timeout-ms};
+     * failures and timeouts are thrown to the caller.
+     */
+    public void sendMail(String toEmail, String subject, String body) {
+        try {
+            submit(toEmail, subject, body).orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new MailSendException("Mail to " + toEmail + " failed", e.getCause());
+        }
+    }
+
+    public void sendMail(String toEmail, MailTemplate template, Map<String, ?> values) {
+        sendMail(toEmail, template.subject(), template.render(values));
+    }
+
+    public void sendLoginNotification(String toEmail, String username) {
+        sendMail(toEmail, LOGIN_NOTIFICATION, MailTemplate.values("name", username));
+    }
+
+    private void run() {
+        List<Outgoing> burst = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Outgoing first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                burst.add(first);
+                collectBurst(burst);
+                sendBurst(burst);
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.error("❌ Mail sender error: {}", e.getMessage());
+            } finally {
+                burst.clear();
+            }
+        }
+    }
+
+    // Takes what is already queued, then waits up to linger-ms for the rest of a burst
+    private void collectBurst(List<Outgoing> burst) throws InterruptedException {
+        queue.drainTo(burst, maxBatch - burst.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (burst.size() < maxBatch) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            Outgoing next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            burst.add(next);
+            queue.drainTo(burst, maxBatch - burst.size());
+        }
+    }
+
+    private void sendBurst(List<Outgoing> burst) {
+        SimpleMailMessage[] messages = burst.stream().map(Outgoing::message).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = Map.of();
+        MailException sessionFailure = null;
+
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            // Keyed by the SimpleMailMessage we passed in; an empty map means the whole session failed
+            failures = e.getFailedMessages();
+            if (failures.isEmpty()) sessionFailure = e;
+        } catch (MailException e) {
+            sessionFailure = e;
+        }
+        long end = System.nanoTime();
+        batchDuration.record(end - start, TimeUnit.NANOSECONDS);
+        batchSize.record(burst.size());
 
-        mailSender.send(message);
+        for (Outgoing outgoing : burst) {
+            Exception failure = sessionFailure != null ? sessionFailure : failures.get(outgoing.message());
+            if (failure == null) {
+                sendLatency.record(end - outgoing.queuedAt(), TimeUnit.NANOSECONDS);
+                outgoing.done().complete(null);
+            } else {
+                failed.increment();
+                log.warn("⚠️ Mail to {} failed: {}", String.join(",", outgoing.message().getTo()), failure.getMessage());
+                outgoing.done().completeExceptionally(failure);
+            }
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.IPS.IPS_Manager.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A mail subject plus a body with {@code {name}} placeholders, split into literal text and
+ * placeholder slots once when the template is created. Rendering only appends the pieces,
+ * with no format string parsing per mail.
+ */
+public final class MailTemplate {
+
+    private final String subject;
+    private final String[] literals; // one more than names: text before, between and after the slots
+    private final String[] names;
+    private final int sizeHint;
+
+    private MailTemplate(String subject, List<String> literals, List<String> names) {
+        this.subject = subject;
+        this.literals = literals.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+        this.sizeHint = literals.stream().mapToInt(String::length).sum() + 16 * names.size();
+    }
+
+    public static MailTemplate compile(String subject, String body) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int open = body.indexOf('{', from);
+            int close = open < 0 ? -1 : body.indexOf('}', open);
+            if (close < 0) break;
+            literals.add(body.substring(from, open));
+            names.add(body.substring(open + 1, close));
+            from = close + 1;
+        }
+        literals.add(body.substring(from));
+        return new MailTemplate(subject, literals, names);
+    }
+
+    /**
+     * Placeholder values from alternating names and values; unlike Map.of, values may be null.
+     */
+    public static Map<String, Object> values(Object... namesAndValues) {
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i + 1 < namesAndValues.length; i += 2) {
+            values.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    public String subject() {
+        return subject;
+    }
+
+    public String render(Map<String, ?> values) {
+        StringBuilder sb = new StringBuilder(sizeHint);
+        for (int i = 0; i < names.length; i++) {
+            sb.append(literals[i]);
+            Object value = values.get(names[i]);
+            if (value == null && !values.containsKey(names[i])) {
+                throw new IllegalArgumentException("No value for mail placeholder {" + names[i] + "}");
+            }
+            sb.append(value);
+        }
+        return sb.append(literals[names.length]).toString();
+    }
+}
@@ -2,14 +2,15 @@ package com.IPS.IPS_Manager.Service;
 
 import com.IPS.IPS_Manager.DTO.AssignRequestDTO;
 import com.IPS.IPS_Manager.DTO.CreateRequestDTO;
+import com.IPS.IPS_Manager.DTO.MaterialRequestView;
 import com.IPS.IPS_Manager.Entity.*;
 import com.IPS.IPS_Manager.Enum.MaterialRequestStatus;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
 import com.IPS.IPS_Manager.Repository.MaterialRequestRepo;
-import com.IPS.IPS_Manager.Repository.ProjectMaterialRepo;
 import com.IPS.IPS_Manager.Repository.ProjectRepo;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
@@ -27,11 +28,14 @@ public class MaterialRequestService {
     private final MaterialRequestRepo requestRepo;
     private final MaterialRepo materialRepo;
     private final ProjectRepo projectRepo;
-    private final ProjectMaterialRepo projectMaterialRepo;
 
     // ✅ ADD THIS
     private final PushNotificationService pushNotificationService;
+    private final StockReservationService stockReservationService;
+    private final ProjectQuotaService projectQuotaService;
+    private final LiveUpdatePublisher liveUpdates;
 
+    @Transactional
     public MaterialRequest createRequest(Long projectId, String materialId, int qty, Users createdBy) {
         Project project = projectRepo.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found"));
@@ -61,15 +65,17 @@ public class MaterialRequestService {
                 )
         );
 
+        liveUpdates.requestChanged(saved.getId());
         return saved;
     }
 
     // ✅ RESTORE THIS - Get requests for projects managed by a project manager
-    public List<MaterialRequest> getRequestsByProjectManagerId(Long projectManagerId) {
-        return requestRepo.findByProject_ProjectManager_Id(projectManagerId);
+    public List<MaterialRequestView> getRequestsByProjectManagerId(Long projectManagerId) {
+        return requestRepo.findViewsByProjectManagerId(projectManagerId);
     }
 
-    @Transactional
+    // Nothing is written before the reservation, so committing on a shortage only keeps its FailedRequest
+    @Transactional(dontRollbackOn = StockShortageException.class)
     public MaterialRequest assignRequest(Long requestId, AssignRequestDTO dto, Users driver) {
         MaterialRequest req = requestRepo.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -78,6 +84,12 @@ public class MaterialRequestService {
             throw new RuntimeException("Assigned quantity cannot exceed requested quantity");
         }
 
+        // Conditional decrement; a shortage is logged as a FailedRequest and nothing is assigned
+        if (!stockReservationService.reserve(req.getMaterial().getId(), dto.getAssignedQuantity(),
+                driver.getId(), dto.getDeliveryDate())) {
+            throw new StockShortageException("Not enough stock of " + req.getMaterial().getName());
+        }
+
         req.setAssignedQuantity(dto.getAssignedQuantity());
         req.setDriver(driver);
         req.setDeliveryDate(dto.getDeliveryDate());
@@ -85,12 +97,6 @@ public class MaterialRequestService {
 
         MaterialRequest saved = requestRepo.save(req);
 
-        Material material = materialRepo.findById(req.getMaterial().getId())
-                .orElseThrow(() -> new RuntimeException("Material not found"));
-        int currentStock = material.getQuantity();
-        material.setQuantity(Math.max(0, currentStock - dto.getAssignedQuantity()));
-        materialRepo.save(material);
-
         // ✅ Notify driver about assignment
         pushNotificationService.sendToUser(
                 driver,
@@ -117,22 +123,23 @@ public class MaterialRequestService {
             );
         }
 
+        liveUpdates.requestChanged(saved.getId());
         return saved;
     }
 
 
 
-    @Transactional
+    // Nothing is written before the quota check, so committing on a refusal only keeps its FailedRequest
+    @Transactional(dontRollbackOn = QuotaExceededException.class)
     public MaterialRequest markDelivered(Long requestId) {
         MaterialRequest request = requestRepo.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found: " + requestId));
 
-        ProjectMaterial pm = projectMaterialRepo.findByProjectIdAndMaterialId(
-                request.getProject().getId(), request.getMaterial().getId()
-        ).orElseThrow(() -> new RuntimeException("ProjectMaterial not found"));
-
-        pm.setQuantityUsed(pm.getQuantityUsed() + request.getAssignedQuantity());
-        projectMaterialRepo.save(pm);
+        // Atomic, bounded by the project's quota; going over is logged as a FailedRequest
+        if (!projectQuotaService.consume(request.getProject().getId(), request.getMaterial().getId(),
+                request.getAssignedQuantity())) {
+            throw new QuotaExceededException("Delivery exceeds the project's quota of " + request.getMaterial().getName());
+        }
 
         request.setStatus(MaterialRequestStatus.SENT);
         MaterialRequest saved = requestRepo.save(request);
@@ -159,12 +166,13 @@ public class MaterialRequestService {
                 Map.of("type", "delivery_completed", "requestId", requestId.toString())
         );
 
+        liveUpdates.requestChanged(saved.getId());
         return saved;
     }
 
     // ✅ RESTORE THIS
-    public List<MaterialRequest> getPendingRequestsForProject(Long projectId) {
-        return requestRepo.findByProjectIdAndStatus(projectId, MaterialRequestStatus.PENDING);
+    public List<MaterialRequestView> getPendingRequestsForProject(Long projectId) {
+        return requestRepo.findViewsByProjectIdAndStatus(projectId, MaterialRequestStatus.PENDING);
     }
 
     // ✅ RESTORE THIS
@@ -172,13 +180,18 @@ public class MaterialRequestService {
         return requestRepo.findByStatus(MaterialRequestStatus.PENDING);
     }
 
+    public List<MaterialRequestView> searchRequests(MaterialRequestStatus status, Long projectId, Long driverId,
+                                                    LocalDate from, LocalDate to, Long after, Limit limit) {
+        return requestRepo.search(status, projectId, driverId, from, to, after, limit);
+    }
+
     // ✅ RESTORE THIS
-    public Optional<MaterialRequest> getRequestById(Long id) {
-        return requestRepo.findById(id);
+    public Optional<MaterialRequestView> getRequestById(Long id) {
+        return requestRepo.findViewById(id);
     }
 
     // ✅ RESTORE THIS
-    public List<MaterialRequest> getAllRequestsForProject(Long projectId) {
-        return requestRepo.findByProject_Id(projectId);
+    public List<MaterialRequestView> getAllRequestsForProject(Long projectId) {
+        return requestRepo.findViewsByProjectId(projectId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,139 @@
+package com.IPS.IPS_Manager.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, virtual-thread backed queue for best-effort after-commit work (live STOMP updates).
+ * Work submitted while a transaction is open is only queued once that transaction commits,
+ * so request threads never wait on it and rolled-back changes never notify anyone.
+ * Push and mail notifications that must not be lost go through NotificationOutboxService instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDispatcher {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${live.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${live.dispatch.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${live.dispatch.drain-on-shutdown:true}")
+    private boolean drainOnShutdown;
+
+    @Value("${live.dispatch.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private ThreadPoolExecutor executor;
+    private Timer queueLatency;
+    private Timer executionLatency;
+    private Counter rejected;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(
+                maxConcurrency,
+                maxConcurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("live-dispatch-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("notifications.dispatch.queue.depth", executor, e -> e.getQueue().size())
+                .description("Notifications waiting for a dispatch worker")
+                .register(meterRegistry);
+        Gauge.builder("notifications.dispatch.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Notifications currently being delivered")
+                .register(meterRegistry);
+        queueLatency = Timer.builder("notifications.dispatch.queue.latency")
+                .description("Time between commit and the start of delivery")
+                .register(meterRegistry);
+        executionLatency = Timer.builder("notifications.dispatch.execution.latency")
+                .description("Time spent delivering a notification")
+                .register(meterRegistry);
+        rejected = Counter.builder("notifications.dispatch.rejected")
+                .description("Notifications dropped because the queue was full or shutting down")
+                .register(meterRegistry);
+        failed = Counter.builder("notifications.dispatch.failed")
+                .description("Notifications whose delivery task threw")
+                .register(meterRegistry);
+
+        log.info("✅ Notification dispatcher ready (concurrency={}, queue={})", maxConcurrency, queueCapacity);
+    }
+
+    /**
+     * Queues the task once the current transaction commits, or straight away when there is none.
+     */
+    public void dispatchAfterCommit(String description, Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(description, task);
+                }
+            });
+        } else {
+            dispatch(description, task);
+        }
+    }
+
+    private void dispatch(String description, Runnable task) {
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                queueLatency.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    failed.increment();
+                    log.error("❌ Notification dispatch failed ({}): {}", description, e.getMessage());
+                } finally {
+                    executionLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("⚠️ Notification queue full, dropping: {}", description);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!drainOnShutdown) {
+            List<Runnable> dropped = executor.shutdownNow();
+            log.warn("🛑 Notification dispatcher stopped, {} queued notification(s) dropped", dropped.size());
+            return;
+        }
+
+        log.info("⏳ Draining {} queued notification(s) before shutdown", executor.getQueue().size());
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            List<Runnable> dropped = executor.shutdownNow();
+            log.warn("🛑 Drain timed out after {}s, {} notification(s) dropped", shutdownTimeoutSeconds, dropped.size());
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Entity.NotificationOutbox;
+import com.IPS.IPS_Manager.Enum.OutboxChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers notification_outbox rows. Each worker claims a batch (SELECT ... FOR UPDATE SKIP LOCKED),
+ * delivers it outside any transaction and records the outcome; failures are retried with
+ * exponential backoff until {@code max-attempts}, then marked FAILED. A push that reached some
+ * devices but not others is retried for the others only.
+ * <p>
+ * Workers never share rows, so throughput grows with {@code notifications.outbox.workers}
+ * and with the number of nodes. Delivery is at-least-once: a node dying between the send and
+ * the outcome update resends that batch after the lease expires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxRelay {
+
+    private static final long PURGE_INTERVAL_MS = 60 * 60 * 1000L;
+
+    private final NotificationOutboxService outbox;
+    private final PushNotificationService pushNotificationService;
+    private final MailService mailService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notifications.outbox.workers:2}")
+    private int workers;
+
+    @Value("${notifications.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${notifications.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${notifications.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.initial-backoff-seconds:5}")
+    private long initialBackoffSeconds;
+
+    @Value("${notifications.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    @Value("${notifications.outbox.retention-days:7}")
+    private long retentionDays;
+
+    @Value("${push.delivery.fanout-timeout-seconds:60}")
+    private long fanOutTimeoutSeconds;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private ExecutorService pushSenders;
+    private final AtomicLong lastPurge = new AtomicLong();
+    private volatile boolean running;
+
+    private Counter sent;
+    private Counter retried;
+    private Counter failed;
+    private Timer lag;
+
+    @PostConstruct
+    public void start() {
+        // A batch must be done before its lease runs out, or another worker claims and sends it again
+        if (fanOutTimeoutSeconds >= deliveryBudget().toSeconds()) {
+            throw new IllegalStateException("push.delivery.fanout-timeout-seconds (" + fanOutTimeoutSeconds
+                    + ") must be below 3/4 of notifications.outbox.lease-seconds (" + leaseSeconds + ")");
+        }
+        pushSenders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-push-", 0).factory());
+
+        sent = Counter.builder("notifications.outbox.sent")
+                .description("Outbox notifications delivered")
+                .register(meterRegistry);
+        retried = Counter.builder("notifications.outbox.retried")
+                .description("Outbox deliveries that failed and were rescheduled")
+                .register(meterRegistry);
+        failed = Counter.builder("notifications.outbox.failed")
+                .description("Outbox notifications given up after the last attempt")
+                .register(meterRegistry);
+        lag = Timer.builder("notifications.outbox.lag")
+                .description("Time from enqueue to successful delivery")
+                .register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            threads.add(Thread.ofVirtual().name("outbox-relay-" + i).start(this::run));
+        }
+        log.info("✅ Notification outbox relay started ({} worker(s), batch={})", workers, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) thread.interrupt();
+        for (Thread thread : threads) thread.join(pollIntervalMs + 5000);
+        pushSenders.shutdownNow();
+    }
+
+    // Leaves a quarter of the lease for recording the outcomes
+    private Duration deliveryBudget() {
+        return Duration.ofSeconds(leaseSeconds).multipliedBy(3).dividedBy(4);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                purgeIfDue();
+                List<NotificationOutbox> batch = outbox.claim(batchSize, Duration.ofSeconds(leaseSeconds));
+                if (batch.isEmpty()) {
+                    outbox.awaitWork(pollIntervalMs);
+                } else {
+                    deliver(batch, System.nanoTime() + deliveryBudget().toNanos());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (!running) return;
+                log.error("❌ Outbox relay error: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Mails of a batch are queued together so MailService sends them over one SMTP session;
+    // pushes all go out at once while those are in flight. Everything is awaited against one
+    // deadline inside the lease, so nothing is still sending when the rows can be claimed again.
+    private void deliver(List<NotificationOutbox> batch, long deadlineNanos) {
+        List<Long> delivered = new ArrayList<>();
+        Map<NotificationOutbox, CompletableFuture<Void>> inFlight = new LinkedHashMap<>();
+
+        for (NotificationOutbox message : batch) {
+            inFlight.put(message, message.getChannel() == OutboxChannel.MAIL
+                    ? mailService.submit(message.getRecipient(), message.getTitle(), message.getBody())
+                    : CompletableFuture.runAsync(() -> sendPush(message), pushSenders));
+        }
+
+        inFlight.forEach((message, done) -> {
+            try {
+                done.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered(message, delivered);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                recordFailure(message, e);
+            } catch (ExecutionException e) {
+                recordFailure(message, e.getCause() instanceof Exception cause ? cause : e);
+            } catch (Exception e) {
+                recordFailure(message, e);
+            }
+        });
+
+        outbox.recordSent(delivered);
+        sent.increment(delivered.size());
+    }
+
+    private void delivered(NotificationOutbox message, List<Long> delivered) {
+        delivered.add(message.getId());
+        lag.record(Duration.between(message.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    private void sendPush(NotificationOutbox message) {
+        Map<String, String> data = outbox.readData(message);
+        Set<String> targets = outbox.readPendingTargets(message);
+        switch (message.getChannel()) {
+            case PUSH_USER -> pushNotificationService.deliverToUser(
+                    Long.valueOf(message.getRecipient()), message.getTitle(), message.getBody(), data, targets);
+            case PUSH_ROLE -> pushNotificationService.deliverToRole(
+                    message.getRecipient(), message.getTitle(), message.getBody(), data, targets);
+            default -> throw new IllegalStateException("Not a push channel: " + message.getChannel());
+        }
+    }
+
+    private void recordFailure(NotificationOutbox message, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        if (message.getAttempts() >= maxAttempts) {
+            outbox.recordFailed(message.getId(), error);
+            failed.increment();
+            log.error("❌ Giving up on {} notification {} after {} attempts: {}",
+                    message.getChannel(), message.getId(), message.getAttempts(), error);
+            return;
+        }
+
+        // A partly delivered push is retried for the failed devices only
+        Collection<String> pendingTargets = e instanceof PartialPushDeliveryException partial
+                ? partial.failedTargets()
+                : outbox.readPendingTargets(message);
+
+        // 5s, 10s, 20s, ... capped
+        long backoffSeconds = Math.min(initialBackoffSeconds << Math.min(message.getAttempts() - 1, 20), maxBackoffSeconds);
+        outbox.recordRetry(message.getId(), LocalDateTime.now().plusSeconds(backoffSeconds), error, pendingTargets);
+        retried.increment();
+        log.warn("⚠️ {} notification {} failed (attempt {}), retrying in {}s: {}",
+                message.getChannel(), message.getId(), message.getAttempts(), backoffSeconds, error);
+    }
+
+    // Sent rows are only kept for a while; one worker per node does it, at most hourly
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < PURGE_INTERVAL_MS || !lastPurge.compareAndSet(last, now)) return;
+
+        int purged = outbox.purgeSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) log.info("🧹 Purged {} delivered outbox notification(s)", purged);
+    }
+}
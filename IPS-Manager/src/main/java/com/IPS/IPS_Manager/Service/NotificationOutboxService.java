@@ -0,0 +1,161 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Entity.NotificationOutbox;
+import com.IPS.IPS_Manager.Enum.OutboxChannel;
+import com.IPS.IPS_Manager.Enum.OutboxStatus;
+import com.IPS.IPS_Manager.Repository.NotificationOutboxRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes notifications to the notification_outbox table inside the caller's transaction, so a
+ * notification exists exactly when the change it reports was committed. NotificationOutboxRelay
+ * delivers them; the claim and outcome methods here are its transactional side.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationOutboxService {
+
+    private static final TypeReference<Map<String, String>> DATA_TYPE = new TypeReference<>() {};
+
+    private final NotificationOutboxRepo outboxRepo;
+    private final ObjectMapper objectMapper;
+
+    // Lets an idle relay start on a fresh commit instead of waiting out its poll interval
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    public NotificationOutbox enqueuePushToUser(Long userId, String title, String body, Map<String, String> data) {
+        return enqueue(OutboxChannel.PUSH_USER, userId.toString(), title, body, toJson(data));
+    }
+
+    public NotificationOutbox enqueuePushToRole(String role, String title, String body, Map<String, String> data) {
+        return enqueue(OutboxChannel.PUSH_ROLE, role, title, body, toJson(data));
+    }
+
+    public NotificationOutbox enqueueMail(String toEmail, String subject, String body) {
+        return enqueue(OutboxChannel.MAIL, toEmail, subject, body, null);
+    }
+
+    public NotificationOutbox enqueueMail(String toEmail, MailTemplate template, Map<String, ?> values) {
+        return enqueueMail(toEmail, template.subject(), template.render(values));
+    }
+
+    private NotificationOutbox enqueue(OutboxChannel channel, String recipient, String title, String body, String data) {
+        NotificationOutbox message = new NotificationOutbox();
+        message.setChannel(channel);
+        message.setRecipient(recipient);
+        message.setTitle(title);
+        message.setBody(body);
+        message.setData(data);
+        message.setStatus(OutboxStatus.PENDING);
+
+        NotificationOutbox saved = outboxRepo.save(message);
+        wakeRelayAfterCommit();
+        return saved;
+    }
+
+    /**
+     * Locks a batch of due rows and leases them to the caller until {@code now + lease}.
+     * The lock is released on return; the lease keeps other relays off the rows while they are
+     * being delivered, and makes them due again if this node dies before recording an outcome.
+     */
+    @Transactional
+    public List<NotificationOutbox> claim(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> due = outboxRepo.lockDue(now, limit);
+        for (NotificationOutbox message : due) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plus(lease));
+        }
+        return due;
+    }
+
+    @Transactional
+    public void recordSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) outboxRepo.markSent(ids, LocalDateTime.now());
+    }
+
+    /**
+     * {@code pendingTargets} narrows the retry of a push to the devices that failed; null retries all.
+     */
+    @Transactional
+    public void recordRetry(Long id, LocalDateTime retryAt, String error, Collection<String> pendingTargets) {
+        outboxRepo.scheduleRetry(id, retryAt, truncate(error),
+                pendingTargets == null ? null : String.join(",", pendingTargets));
+    }
+
+    public Set<String> readPendingTargets(NotificationOutbox message) {
+        if (message.getPendingTargets() == null) return null;
+        return Set.of(message.getPendingTargets().split(","));
+    }
+
+    @Transactional
+    public void recordFailed(Long id, String error) {
+        outboxRepo.markFailed(id, truncate(error));
+    }
+
+    @Transactional
+    public int purgeSentBefore(LocalDateTime before) {
+        return outboxRepo.deleteSentBefore(before);
+    }
+
+    /**
+     * Blocks until something was enqueued (and committed) or the timeout passes.
+     */
+    public void awaitWork(long timeoutMs) throws InterruptedException {
+        if (wakeUps.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            wakeUps.drainPermits();
+        }
+    }
+
+    public Map<String, String> readData(NotificationOutbox message) {
+        if (message.getData() == null) return Map.of();
+        try {
+            return objectMapper.readValue(message.getData(), DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Unreadable outbox data for notification " + message.getId(), e);
+        }
+    }
+
+    private void wakeRelayAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUps.release();
+                }
+            });
+        } else {
+            wakeUps.release();
+        }
+    }
+
+    private String toJson(Map<String, String> data) {
+        if (data == null || data.isEmpty()) return null;
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize notification data", e);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return null;
+        return error.length() <= 1000 ? error : error.substring(0, 1000);
+    }
+}
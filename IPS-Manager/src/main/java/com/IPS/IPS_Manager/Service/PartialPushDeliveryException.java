@@ -0,0 +1,22 @@
+package com.IPS.IPS_Manager.Service;
+
+import java.util.Set;
+
+/**
+ * Some devices of a push could not be reached for a reason worth retrying (5xx, 429, timeout).
+ * {@link #failedTargets()} names them as {@code <copy>:<subscriptionId>}, so a retry goes only to
+ * those devices and not again to the ones that already got it.
+ */
+public class PartialPushDeliveryException extends RuntimeException {
+
+    private final Set<String> failedTargets;
+
+    public PartialPushDeliveryException(Set<String> failedTargets) {
+        super("Push failed for " + failedTargets.size() + " device(s): " + failedTargets);
+        this.failedTargets = Set.copyOf(failedTargets);
+    }
+
+    public Set<String> failedTargets() {
+        return failedTargets;
+    }
+}
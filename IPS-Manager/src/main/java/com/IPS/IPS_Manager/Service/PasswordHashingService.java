@@ -0,0 +1,98 @@
+package com.IPS.IPS_Manager.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashes passwords for bulk registrations on a CPU-sized pool instead of the request thread.
+ * Each call runs at most one task per worker, which pull passwords off a shared index,
+ * so a big import never floods the pool's queue and concurrent imports share the workers fairly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashingService {
+
+    private static final int PROGRESS_STEP = 100;
+
+    private final PasswordEncoder encoder;
+
+    @Value("${security.password-hashing.threads:0}")
+    private int configuredThreads;
+
+    private int threads;
+    private ExecutorService pool;
+
+    @PostConstruct
+    public void init() {
+        threads = configuredThreads > 0 ? configuredThreads : Runtime.getRuntime().availableProcessors();
+        pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("password-hash-", 0).daemon().factory());
+        log.info("✅ Password hashing pool ready ({} threads)", threads);
+    }
+
+    public String encode(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Returns the hash of each password, in order. Null or empty entries stay null.
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        int total = rawPasswords.size();
+        String[] hashes = new String[total];
+        if (total == 0) return List.of();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        long startedAt = System.currentTimeMillis();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < Math.min(threads, total); w++) {
+            workers.add(pool.submit(() -> {
+                for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                    String raw = rawPasswords.get(i);
+                    if (raw != null && !raw.isEmpty()) {
+                        hashes[i] = encoder.encode(raw);
+                    }
+                    int finished = done.incrementAndGet();
+                    if (finished % PROGRESS_STEP == 0 && finished < total) {
+                        log.info("🔐 Hashed {}/{} passwords", finished, total);
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> worker : workers) worker.get();
+        } catch (InterruptedException e) {
+            workers.forEach(worker -> worker.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Password hashing interrupted", e);
+        } catch (ExecutionException e) {
+            workers.forEach(worker -> worker.cancel(true));
+            throw new RuntimeException("Password hashing failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        log.info("🔐 Hashed {} passwords in {} ms", total, System.currentTimeMillis() - startedAt);
+        return Arrays.asList(hashes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
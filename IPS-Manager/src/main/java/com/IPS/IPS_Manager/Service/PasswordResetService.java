@@ -7,6 +7,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 @Service
 public class PasswordResetService {
 
@@ -19,6 +21,9 @@ public class PasswordResetService {
     @Autowired
     private JWTService jwtService;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
     @Value("${app.frontend-url:http://localhost:3000}")
     private String frontendUrl;
 
@@ -32,9 +37,7 @@ public class PasswordResetService {
         String token = jwtService.generateResetToken(user.getMail());
         String resetLink = frontendUrl + "/reset-password?token=" + token;
 
-        mailService.sendMail(user.getMail(),
-                "Password Reset Request",
-                "Click the following link to reset your password (valid 15 minutes):\n\n" + resetLink);
+        mailService.sendMail(user.getMail(), MailService.PASSWORD_RESET, Map.of("link", resetLink));
     }
 
     // Step 2: Reset password using token
@@ -46,5 +49,6 @@ public class PasswordResetService {
 
         user.setPassword(encoder.encode(newPassword));
         userRepo.save(user);
+        principalCache.invalidate(user.getMail());
     }
 }
\ No newline at end of file
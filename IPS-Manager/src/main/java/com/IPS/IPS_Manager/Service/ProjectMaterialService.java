@@ -2,6 +2,7 @@ package com.IPS.IPS_Manager.Service;
 
 
 import com.IPS.IPS_Manager.DTO.CreateRequestDTO;
+import com.IPS.IPS_Manager.DTO.ProjectMaterialView;
 import com.IPS.IPS_Manager.DTO.ProjectWithMaterialsRequest;
 import com.IPS.IPS_Manager.Entity.*;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
@@ -14,7 +15,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,39 +37,42 @@ public class ProjectMaterialService {
     @Autowired
     private MaterialRequestService materialRequestService;
 
+    @Autowired
+    private ProjectQuotaService projectQuotaService;
+
     @Transactional
     public Project createProjectWithMaterials(Project project, List<ProjectMaterial> materials) {
         Project savedProject = projectRepo.save(project);
 
+        // One lookup for all materials, one batched insert for the rows
+        Map<String, Material> byId = materialRepo.findAllById(
+                        materials.stream().map(req -> req.getMaterial().getId()).toList())
+                .stream()
+                .collect(Collectors.toMap(Material::getId, Function.identity()));
+
+        List<ProjectMaterial> rows = new ArrayList<>(materials.size());
         for (ProjectMaterial req : materials) {
             String materialId = req.getMaterial().getId();
 
-            Material material = materialRepo.findById(materialId)
-                    .orElseThrow(() -> new RuntimeException("Material not found: " + materialId));
+            Material material = byId.get(materialId);
+            if (material == null) {
+                throw new RuntimeException("Material not found: " + materialId);
+            }
 
             ProjectMaterial pm = new ProjectMaterial();
             pm.setProject(savedProject);
             pm.setMaterial(material);
             pm.setAssignedQuantity(req.getAssignedQuantity());
             pm.setQuantityUsed(0);
-
-            projectMaterialRepo.save(pm);
+            rows.add(pm);
         }
+        projectMaterialRepo.saveAll(rows);
 
         return savedProject;
     }
 
     public boolean updateQuantityUsed(Long projectMaterialId, int newUsedQuantity) {
-        ProjectMaterial pm = projectMaterialRepo.findById(projectMaterialId)
-                .orElseThrow(() -> new RuntimeException("Project material not found"));
-
-        if (newUsedQuantity > pm.getAssignedQuantity()) {
-            return false; // exceeding limit
-        }
-
-        pm.setQuantityUsed(newUsedQuantity);
-        projectMaterialRepo.save(pm);
-        return true;
+        return projectQuotaService.setUsed(projectMaterialId, newUsedQuantity); // false when exceeding limit
     }
 
     // ✅ Worker creates new material request for project
@@ -72,8 +80,8 @@ public class ProjectMaterialService {
         return materialRequestService.createRequest(projectId, materialId, quantity, user);
     }
 
-    public List<ProjectMaterial> getMaterialsByProject(Long projectId) {
-        return projectMaterialRepo.findByProject_Id(projectId);
+    public List<ProjectMaterialView> getMaterialsByProject(Long projectId) {
+        return projectMaterialRepo.findViewsByProjectId(projectId);
     }
 
     public ProjectMaterial getMaterialByProjectAndMaterial(Long projectId, String materialId) {
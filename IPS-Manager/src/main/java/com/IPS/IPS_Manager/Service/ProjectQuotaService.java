@@ -0,0 +1,71 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.RemainingQuotaView;
+import com.IPS.IPS_Manager.Entity.ProjectMaterial;
+import com.IPS.IPS_Manager.Repository.ProjectMaterialRepo;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps ProjectMaterial.quantityUsed within assignedQuantity. Every change is one conditional
+ * UPDATE, so concurrent deliveries can't lose increments or jointly overshoot the quota.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectQuotaService {
+
+    private final ProjectMaterialRepo projectMaterialRepo;
+    private final FailedRequestService failedRequestService;
+
+    /**
+     * Adds {@code quantity} to what the project used of the material. Returns false, after recording
+     * a QUOTA_EXCEEDED failed request, when that would go past the assigned quantity.
+     */
+    @Transactional
+    public boolean consume(Long projectId, String materialId, int quantity) {
+        if (quantity <= 0) return true;
+
+        if (projectMaterialRepo.consumeQuota(projectId, materialId, quantity) == 1) {
+            return true;
+        }
+
+        ProjectMaterial pm = projectMaterialRepo.findByProjectIdAndMaterialId(projectId, materialId)
+                .orElseThrow(() -> new RuntimeException("ProjectMaterial not found"));
+        rejected(pm, quantity);
+        return false;
+    }
+
+    /**
+     * Sets the used quantity outright; same bound and failure record as {@link #consume}.
+     */
+    @Transactional
+    public boolean setUsed(Long projectMaterialId, int quantityUsed) {
+        if (projectMaterialRepo.setQuantityUsedWithinQuota(projectMaterialId, quantityUsed) == 1) {
+            return true;
+        }
+
+        ProjectMaterial pm = projectMaterialRepo.findById(projectMaterialId)
+                .orElseThrow(() -> new RuntimeException("Project material not found"));
+        rejected(pm, quantityUsed - pm.getQuantityUsed());
+        return false;
+    }
+
+    public List<RemainingQuotaView> getRemainingQuota(Long projectId) {
+        return projectMaterialRepo.findRemainingQuota(projectId);
+    }
+
+    private void rejected(ProjectMaterial pm, int requested) {
+        int remaining = Math.max(0, pm.getAssignedQuantity() - pm.getQuantityUsed());
+        Long projectId = pm.getProject().getId();
+        String materialId = pm.getMaterial().getId();
+
+        failedRequestService.recordQuotaExceeded(materialId, requested, remaining, projectId);
+        log.warn("⚠️ Quota exceeded on project {} for material {}: requested {}, remaining {}",
+                projectId, materialId, requested, remaining);
+    }
+}
@@ -1,15 +1,18 @@
 package com.IPS.IPS_Manager.Service;
 
+import com.IPS.IPS_Manager.DTO.ProjectView;
 import com.IPS.IPS_Manager.Entity.Material;
 import com.IPS.IPS_Manager.Entity.Project;
 import com.IPS.IPS_Manager.Entity.ProjectMaterial;
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.Role;
 import com.IPS.IPS_Manager.Repository.MaterialRepo;
 import com.IPS.IPS_Manager.Repository.ProjectMaterialRepo;
 import com.IPS.IPS_Manager.Repository.ProjectRepo;
 import com.IPS.IPS_Manager.Repository.UserRepo;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -35,10 +38,19 @@ public class ProjectService {
         return projectRepo.save(project);
     }
 
+    // One transaction, so the inserts go out as JDBC batches
+    public List<Project> addProjects(List<Project> projects) {
+        return projectRepo.saveAll(projects);
+    }
+
     public List<Project> getAllProjects() {
         return projectRepo.findAll();
     }
 
+    public List<ProjectView> getProjects(Long managerId, Long after, Limit limit) {
+        return projectRepo.findPage(after, managerId, limit);
+    }
+
     @Transactional
     public ProjectMaterial addMaterialToProject(Long projectId, String materialId, Integer quantity) {
         Project project = projectRepo.findById(projectId)
@@ -101,11 +113,7 @@ public class ProjectService {
         Users projectManager = userRepo.findById(projectManagerId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + projectManagerId));
 
-        // ✅ FIXED: Checks the collection roles instead of assuming a single string field exists
-        boolean isManager = projectManager.getRoles() != null && projectManager.getRoles().stream()
-                .anyMatch(role -> "project_manager".equalsIgnoreCase(role));
-
-        if (!isManager) {
+        if (!projectManager.hasRole(Role.PROJECT_MANAGER)) {
             throw new RuntimeException("User must have project_manager role");
         }
 
@@ -113,8 +121,8 @@ public class ProjectService {
         return projectRepo.save(project);
     }
 
-    public List<Project> getProjectsByManagerId(Long managerId) {
-        return projectRepo.findByProjectManagerId(managerId);
+    public List<ProjectView> getProjectsByManagerId(Long managerId) {
+        return projectRepo.findViewsByProjectManagerId(managerId);
     }
 
     @Transactional
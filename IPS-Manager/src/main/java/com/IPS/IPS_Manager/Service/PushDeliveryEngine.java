@@ -0,0 +1,259 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.PushTarget;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import nl.martijndwars.webpush.AbstractPushService;
+import nl.martijndwars.webpush.Encoding;
+import nl.martijndwars.webpush.Notification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fans one push payload out to many devices in two stages:
+ * <ol>
+ *   <li>encryption (ECDH + AES-GCM and the VAPID signature) on a pool with one thread per core;</li>
+ *   <li>delivery through one shared HTTP/2 client, which keeps a connection per push service
+ *       (FCM, Mozilla, Apple...) and multiplexes requests over it. At most
+ *       {@code max-concurrency-per-origin} requests are in flight per push service.</li>
+ * </ol>
+ * A device that finishes encrypting goes straight on to delivery; nothing waits for the whole batch.
+ */
+@Component
+@Slf4j
+public class PushDeliveryEngine {
+
+    // Managed by HttpClient itself; setting them is rejected
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("content-length", "host", "connection");
+
+    /**
+     * Outcome of one fan-out. {@code gone} are subscriptions the push service reported as
+     * unsubscribed (404/410) and should be deactivated; {@code failed} are worth retrying.
+     */
+    public record Result(List<PushTarget> delivered, List<PushTarget> gone, List<PushTarget> failed) {}
+
+    private record Outcome(PushTarget target, int status, Throwable error) {}
+
+    // Exposes the library's request building (encryption + VAPID headers) without its blocking sender
+    private static final class RequestFactory extends AbstractPushService<RequestFactory> {
+        nl.martijndwars.webpush.HttpRequest build(Notification notification) throws Exception {
+            return prepareRequest(notification, Encoding.AES128GCM);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int encryptThreads;
+    private final int maxConcurrencyPerOrigin;
+    private final long requestTimeoutMs;
+    private final RequestFactory requestFactory = new RequestFactory();
+    private final Map<String, Semaphore> originPermits = new ConcurrentHashMap<>();
+    private volatile boolean configured;
+
+    private ExecutorService encryptPool;
+    private ExecutorService sendPool;
+    private HttpClient httpClient;
+
+    private Timer encryptTime;
+    private Timer sendLatency;
+    private Timer fanOutTime;
+    private Counter delivered;
+    private Counter gone;
+    private Counter failed;
+
+    public PushDeliveryEngine(MeterRegistry meterRegistry,
+                              @Value("${push.delivery.encrypt-threads:0}") int encryptThreads,
+                              @Value("${push.delivery.max-concurrency-per-origin:32}") int maxConcurrencyPerOrigin,
+                              @Value("${push.delivery.request-timeout-ms:10000}") long requestTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.encryptThreads = encryptThreads;
+        this.maxConcurrencyPerOrigin = maxConcurrencyPerOrigin;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = encryptThreads > 0 ? encryptThreads : Runtime.getRuntime().availableProcessors();
+        encryptPool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("push-encrypt-", 0).daemon().factory());
+        // Waiting for an origin permit blocks; virtual threads make that free
+        sendPool = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("push-send-", 0).factory());
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(requestTimeoutMs))
+                .executor(sendPool)
+                .build();
+
+        encryptTime = Timer.builder("push.encrypt.duration")
+                .description("Time to encrypt and sign one push message")
+                .register(meterRegistry);
+        sendLatency = Timer.builder("push.send.latency")
+                .description("Time from sending a push request to the push service's answer")
+                .register(meterRegistry);
+        fanOutTime = Timer.builder("push.fanout.duration")
+                .description("Time to deliver one payload to all targeted devices")
+                .register(meterRegistry);
+        delivered = Counter.builder("push.delivered")
+                .description("Devices the push service accepted a message for")
+                .register(meterRegistry);
+        gone = Counter.builder("push.gone")
+                .description("Devices the push service reported as unsubscribed")
+                .register(meterRegistry);
+        failed = Counter.builder("push.failed")
+                .description("Pushes that failed for any other reason")
+                .register(meterRegistry);
+
+        log.info("✅ Push delivery engine ready (encrypt threads={}, per-origin concurrency={})",
+                threads, maxConcurrencyPerOrigin);
+    }
+
+    @PreDestroy
+    public void stop() {
+        encryptPool.shutdown();
+        sendPool.shutdown();
+    }
+
+    public void configure(String publicKey, String privateKey, String subject) throws GeneralSecurityException {
+        requestFactory.setPublicKey(publicKey);
+        requestFactory.setPrivateKey(privateKey);
+        requestFactory.setSubject(subject);
+        configured = true;
+    }
+
+    public boolean isConfigured() {
+        return configured;
+    }
+
+    public CompletableFuture<Result> deliver(Collection<PushTarget> targets, byte[] payload) {
+        return deliver(targets, payload, null);
+    }
+
+    /**
+     * As {@link #deliver(Collection, byte[])}, but the result is complete after at most {@code timeout}:
+     * devices without an answer by then are reported as failed, so the caller still learns which
+     * ones were delivered or gone.
+     */
+    public CompletableFuture<Result> deliver(Collection<PushTarget> targets, byte[] payload, Duration timeout) {
+        if (targets.isEmpty()) {
+            return CompletableFuture.completedFuture(new Result(List.of(), List.of(), List.of()));
+        }
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>(targets.size());
+        for (PushTarget target : targets) {
+            CompletableFuture<Outcome> outcome = CompletableFuture
+                    .supplyAsync(() -> encrypt(target, payload), encryptPool)
+                    .thenComposeAsync(request -> send(target, request), sendPool)
+                    .exceptionally(e -> new Outcome(target, 0, unwrap(e)));
+            if (timeout != null) {
+                outcome = outcome.completeOnTimeout(new Outcome(target, 0,
+                        new TimeoutException("No answer within " + timeout.toSeconds() + "s")),
+                        timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+            outcomes.add(outcome);
+        }
+
+        return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new)).thenApply(done -> {
+            fanOutTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return collect(outcomes);
+        });
+    }
+
+    private HttpRequest encrypt(PushTarget target, byte[] payload) {
+        long start = System.nanoTime();
+        try {
+            Notification notification = new Notification(
+                    target.endpoint(), target.p256dh(), target.auth(), payload);
+            nl.martijndwars.webpush.HttpRequest prepared = requestFactory.build(notification);
+
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(prepared.getUrl()))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(prepared.getBody()));
+            prepared.getHeaders().forEach((name, value) -> {
+                if (!RESTRICTED_HEADERS.contains(name.toLowerCase())) request.header(name, value);
+            });
+            return request.build();
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        } finally {
+            encryptTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Runs on a virtual thread: waits for a permit of the push service, then sends without blocking
+    private CompletableFuture<Outcome> send(PushTarget target, HttpRequest request) {
+        Semaphore permits = originPermits.computeIfAbsent(origin(request.uri()),
+                key -> new Semaphore(maxConcurrencyPerOrigin));
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    permits.release();
+                    sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return error != null
+                            ? new Outcome(target, 0, unwrap(error))
+                            : new Outcome(target, response.statusCode(), null);
+                });
+    }
+
+    private Result collect(List<CompletableFuture<Outcome>> outcomes) {
+        List<PushTarget> ok = new ArrayList<>();
+        List<PushTarget> unsubscribed = new ArrayList<>();
+        List<PushTarget> failures = new ArrayList<>();
+
+        for (CompletableFuture<Outcome> future : outcomes) {
+            Outcome outcome = future.join();
+            int status = outcome.status();
+            if (status >= 200 && status < 300) {
+                ok.add(outcome.target());
+            } else if (status == 404 || status == 410) {
+                unsubscribed.add(outcome.target());
+            } else {
+                failures.add(outcome.target());
+                log.error("❌ Push to subscription {} failed: {}", outcome.target().id(),
+                        outcome.error() != null ? outcome.error().getMessage() : "HTTP " + status);
+            }
+        }
+
+        delivered.increment(ok.size());
+        gone.increment(unsubscribed.size());
+        failed.increment(failures.size());
+        return new Result(ok, unsubscribed, failures);
+    }
+
+    private static String origin(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort();
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -1,18 +1,23 @@
 package com.IPS.IPS_Manager.Service;
 
+import com.IPS.IPS_Manager.DTO.ClusterEvent;
 import com.IPS.IPS_Manager.DTO.PushSubscriptionDTO;
+import com.IPS.IPS_Manager.DTO.PushTarget;
 import com.IPS.IPS_Manager.Entity.PushSubscription;
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.ClusterEventType;
+import com.IPS.IPS_Manager.Enum.Role;
 import com.IPS.IPS_Manager.Repository.PushSubscriptionRepository;
 import com.IPS.IPS_Manager.Repository.UserRepo;
 import com.google.gson.Gson;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import nl.martijndwars.webpush.Notification;
-import nl.martijndwars.webpush.PushService;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.annotation.PostConstruct;
 
@@ -23,9 +28,13 @@ import java.security.Security;
 import java.security.interfaces.ECPrivateKey;
 import java.security.interfaces.ECPublicKey;
 import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +43,9 @@ public class PushNotificationService {
 
     private final PushSubscriptionRepository subscriptionRepo;
     private final UserRepo userRepo;
+    private final NotificationOutboxService outbox;
+    private final ClusterEventBus clusterEventBus;
+    private final PushDeliveryEngine deliveryEngine;
 
     @Value("${push.notification.public-key:}")
     private String publicKey;
@@ -44,7 +56,17 @@ public class PushNotificationService {
     @Value("${push.notification.subject:mailto:admin@example.com}")
     private String subject;
 
-    private PushService pushService;
+    @Value("${push.delivery.fanout-timeout-seconds:60}")
+    private long fanOutTimeoutSeconds;
+
+    // Which copy of a notification a device got, in PartialPushDeliveryException targets
+    static final String MAIN_COPY = "main";
+    static final String ADMIN_COPY = "admin";
+
+    private static final long RESULT_MARGIN_SECONDS = 5;
+
+    // Immutable PushTarget records, never entities: the lists are shared by concurrent deliveries
+    private final Map<String, List<PushTarget>> roleSubscriptionCache = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
@@ -52,10 +74,7 @@ public class PushNotificationService {
             Security.addProvider(new BouncyCastleProvider());
 
             if (publicKey != null && !publicKey.isEmpty() && privateKey != null && !privateKey.isEmpty()) {
-                pushService = new PushService();
-                pushService.setPublicKey(publicKey);
-                pushService.setPrivateKey(privateKey);
-                pushService.setSubject(subject);
+                deliveryEngine.configure(publicKey, privateKey, subject);
                 log.info("✅ Push notification service initialized successfully");
                 log.info("ℹ️ Using VAPID keys from application.properties");
             } else {
@@ -102,10 +121,7 @@ public class PushNotificationService {
             log.warn("push.notification.subject=mailto:your-email@example.com");
             log.warn("━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━━");
 
-            pushService = new PushService();
-            pushService.setPublicKey(publicKeyBase64);
-            pushService.setPrivateKey(privateKeyBase64);
-            pushService.setSubject(subject);
+            deliveryEngine.configure(publicKeyBase64, privateKeyBase64, subject);
 
             log.info("✅ Using auto-generated VAPID keys for this session");
 
@@ -154,7 +170,9 @@ public class PushNotificationService {
             sub.setActive(true);
             sub.setLastUsed(LocalDateTime.now());
             log.info("♻️ Reactivated existing subscription ID: {}", sub.getId());
-            return subscriptionRepo.save(sub);
+            PushSubscription saved = subscriptionRepo.save(sub);
+            evictRoleCache();
+            return saved;
         }
 
         PushSubscription subscription = new PushSubscription();
@@ -167,6 +185,7 @@ public class PushNotificationService {
         subscription.setActive(true);
 
         PushSubscription saved = subscriptionRepo.save(subscription);
+        evictRoleCache();
         log.info("✅ New subscription created with ID: {}", saved.getId());
 
         return saved;
@@ -175,99 +194,145 @@ public class PushNotificationService {
     /**
      * Sends a push notification to EVERY active browser session/device associated with the user account.
      * Automatically forwards a copy to all registered Admins if the targeted user isn't an Admin.
+     * Written to the notification outbox in the caller's transaction; NotificationOutboxRelay delivers it after commit.
      */
     public void sendToUser(Users user, String title, String body, Map<String, String> data) {
+        outbox.enqueuePushToUser(user.getId(), title, body, data);
+    }
+
+    /**
+     * Broadcasts a push notification to every active device of every user who holds this role.
+     * Automatically captures a backup copy for Admin dashboards if the role isn't 'admin'.
+     * Written to the notification outbox in the caller's transaction; NotificationOutboxRelay delivers it after commit.
+     */
+    public void sendToRole(String role, String title, String body, Map<String, String> data) {
+        outbox.enqueuePushToRole(role, title, body, data);
+    }
+
+    /**
+     * Delivers straight away; called by NotificationOutboxRelay. {@code targets} limits a retry to the
+     * devices that failed last time (see {@link PartialPushDeliveryException}); null means all of them.
+     */
+    public void deliverToUser(Long userId, String title, String body, Map<String, String> data, Set<String> targets) {
+        Users user = userRepo.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
+
         log.info("📧 NOTIFICATION TO USER: {} ({})", user.getName(), user.getRoles());
         log.info("   Title: {}", title);
         log.info("   Body: {}", body);
         log.info("   Data: {}", data);
 
+        Map<String, FanOut> fanOuts = new HashMap<>();
+
         // 1. Send to all active endpoints registered to this account (PC, Mobile, Table, etc.)
-        List<PushSubscription> subscriptions = subscriptionRepo.findByUserAndActiveTrue(user);
+        List<PushTarget> subscriptions = subscriptionRepo.findActiveTargetsByUserId(user.getId());
 
         if (subscriptions.isEmpty()) {
             log.warn("⚠️ No active device subscriptions found for user: {}", user.getName());
         } else {
             log.info("📤 Sending to {} active user device context connection(s)", subscriptions.size());
-            for (PushSubscription sub : subscriptions) {
-                executePushDelivery(sub, title, body, data);
-            }
+            fanOuts.put(MAIN_COPY, fanOut(only(subscriptions, MAIN_COPY, targets), title, body, data));
         }
 
         // 2. 🛡️ ADMIN AUDIT HOOK: Forward mirrored data directly to all Admin devices
-        boolean isAdmin = user.getRoles() != null && user.getRoles().stream().anyMatch(r -> r.equalsIgnoreCase("admin"));
+        boolean isAdmin = user.hasRole(Role.ADMIN);
         if (!isAdmin) {
             log.info("👁️ [BCC Activity] Mirroring notification data stream copy to all active Admins");
-            broadcastToRoleDevices("admin", "[Admin Copy] " + title, body, data);
+            fanOuts.put(ADMIN_COPY, fanOut(only(getRoleSubscriptions("admin"), ADMIN_COPY, targets),
+                    "[Admin Copy] " + title, body, data));
         }
+
+        awaitAndRecord(fanOuts);
     }
 
     /**
-     * Broadcasts a push notification to every active device of every user who holds this role.
-     * Automatically captures a backup copy for Admin dashboards if the role isn't 'admin'.
+     * Delivers straight away; called by NotificationOutboxRelay. {@code targets} as for {@link #deliverToUser}.
      */
-    public void sendToRole(String role, String title, String body, Map<String, String> data) {
+    public void deliverToRole(String role, String title, String body, Map<String, String> data, Set<String> targets) {
         log.info("🔔 NOTIFICATION TO ROLE: {}", role);
         log.info("   Title: {}", title);
         log.info("   Body: {}", body);
         log.info("   Data: {}", data);
 
+        Map<String, FanOut> fanOuts = new HashMap<>();
+
         // 1. Broadcast layout message payload to original target role
-        broadcastToRoleDevices(role, title, body, data);
+        List<PushTarget> subscriptions = getRoleSubscriptions(role);
+        if (subscriptions.isEmpty()) {
+            log.debug("ℹ️ No active client connections listening for roles matching context: {}", role);
+        } else {
+            fanOuts.put(MAIN_COPY, fanOut(only(subscriptions, MAIN_COPY, targets), title, body, data));
+        }
 
         // 2. 🛡️ ADMIN AUDIT HOOK: If the original broadcast wasn't for admins, send them a clone update
-        if (!role.equalsIgnoreCase("admin")) {
+        if (Role.fromName(role).orElse(null) != Role.ADMIN) {
             log.info("👁️ [BCC Activity] Mirroring system broadcast context updates to all active Admins");
-            broadcastToRoleDevices("admin", "[Admin Copy] " + title, body, data);
+            fanOuts.put(ADMIN_COPY, fanOut(only(getRoleSubscriptions("admin"), ADMIN_COPY, targets),
+                    "[Admin Copy] " + title, body, data));
         }
+
+        awaitAndRecord(fanOuts);
     }
 
     /**
-     * Isolated private loop handler preventing endless loop conditions during Admin duplication routing.
+     * Active devices of every user holding the role, resolved by an indexed role_mask lookup
+     * and cached until a subscription is added, removed or a user's roles change. The role name is
+     * matched case-insensitively, as role_mask was built from lower(trim(role)) by RoleMaskMigration.
      */
-    private void broadcastToRoleDevices(String role, String title, String body, Map<String, String> data) {
-        List<PushSubscription> subscriptions = subscriptionRepo.findAll().stream()
-                .filter(sub -> sub.isActive() && sub.getUser() != null && sub.getUser().getRoles() != null)
-                .filter(sub -> sub.getUser().getRoles().stream().anyMatch(r -> r.equalsIgnoreCase(role)))
-                .collect(Collectors.toList());
-
-        if (subscriptions.isEmpty()) {
-            log.debug("ℹ️ No active client connections listening for roles matching context: {}", role);
-            return;
-        }
-
-        for (PushSubscription sub : subscriptions) {
-            executePushDelivery(sub, title, body, data);
-        }
+    private List<PushTarget> getRoleSubscriptions(String role) {
+        return roleSubscriptionCache.computeIfAbsent(role.trim().toLowerCase(),
+                key -> Role.fromName(key)
+                        .map(r -> List.copyOf(subscriptionRepo.findActiveTargetsByUserRoleMasks(r.masksContaining())))
+                        .orElseGet(() -> {
+                            log.warn("⚠️ Unknown role for broadcast: {}", key);
+                            return List.of();
+                        }));
     }
 
     /**
-     * Low-level executor wrapper that signs the payload byte buffer with VAPID signatures and drops dead tokens.
+     * Drops every cached role → subscription lookup, here and on the other nodes.
+     * Call whenever subscriptions or user roles change. Inside a transaction the local clear waits for
+     * the commit, like the cluster event: clearing earlier lets a concurrent broadcast refill the cache
+     * from the pre-commit rows, and nothing would evict that entry again.
      */
-    private void executePushDelivery(PushSubscription sub, String title, String body, Map<String, String> data) {
-        try {
-            sendPushNotification(sub, title, body, data);
-            sub.setLastUsed(LocalDateTime.now());
-            subscriptionRepo.save(sub);
-            log.info("✅ Push successfully processed for device endpoint matching subscription identifier: {}", sub.getId());
-        } catch (Exception e) {
-            log.error("❌ Failed to deliver payload package to device token map reference {}: {}", sub.getId(), e.getMessage());
-
-            // 410 Gone / 404 Not Found explicitly means the user uninstalled or cleared cookies. Drop it.
-            if (e.getMessage().contains("410") || e.getMessage().contains("Gone") || e.getMessage().contains("404")) {
-                sub.setActive(false);
-                subscriptionRepo.save(sub);
-                log.warn("🗑️ Dropped uninstalled/expired push subscription endpoint trace token from database: {}", sub.getId());
-            }
+    public void evictRoleCache() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    roleSubscriptionCache.clear();
+                }
+            });
+        } else {
+            roleSubscriptionCache.clear();
         }
+        clusterEventBus.publish(ClusterEventType.SUBSCRIPTIONS_CHANGED, List.of());
     }
 
-    private void sendPushNotification(PushSubscription sub, String title, String body, Map<String, String> data)
-            throws Exception {
+    // Another node changed subscriptions or users (role changes move users between role lookups)
+    @EventListener(condition = "#event.type() == T(com.IPS.IPS_Manager.Enum.ClusterEventType).SUBSCRIPTIONS_CHANGED"
+            + " or #event.type() == T(com.IPS.IPS_Manager.Enum.ClusterEventType).USER_UPDATED")
+    public void onRemoteSubscriptionsChanged(ClusterEvent event) {
+        roleSubscriptionCache.clear();
+    }
 
-        if (pushService == null) {
+    @EventListener
+    public void onResync(ClusterEvent.Resync resync) {
+        roleSubscriptionCache.clear();
+    }
+
+    // One copy of a notification in flight, with the devices it went to
+    private record FanOut(List<PushTarget> targets, CompletableFuture<PushDeliveryEngine.Result> result) {}
+
+    /**
+     * Starts encrypting and sending one payload to all the devices; the user and admin copies of a
+     * notification are in flight at the same time. The result is complete within the fan-out timeout.
+     */
+    private FanOut fanOut(List<PushTarget> subscriptions, String title, String body, Map<String, String> data) {
+        if (!deliveryEngine.isConfigured()) {
             log.warn("⚠️ Push execution aborted: VAPID service engine not active.");
-            return;
+            return new FanOut(List.of(), CompletableFuture.completedFuture(
+                    new PushDeliveryEngine.Result(List.of(), List.of(), List.of())));
         }
 
         Map<String, Object> payload = new HashMap<>();
@@ -277,16 +342,52 @@ public class PushNotificationService {
         payload.put("badge", "/favicon.ico");
         payload.put("data", data);
 
-        String payloadJson = new Gson().toJson(payload);
+        return new FanOut(subscriptions, deliveryEngine.deliver(subscriptions,
+                new Gson().toJson(payload).getBytes(), Duration.ofSeconds(fanOutTimeoutSeconds)));
+    }
 
-        Notification notification = new Notification(
-                sub.getEndpoint(),
-                sub.getP256dh(),
-                sub.getAuth(),
-                payloadJson.getBytes()
-        );
+    // A retry only goes to the devices listed in targets (null: first attempt, everyone)
+    private static List<PushTarget> only(List<PushTarget> subscriptions, String copy, Set<String> targets) {
+        if (targets == null) return subscriptions;
+        return subscriptions.stream().filter(sub -> targets.contains(copy + ":" + sub.id())).toList();
+    }
 
-        pushService.send(notification);
+    /**
+     * Waits for the fan-outs, then stamps delivered devices and drops the ones the push service
+     * reported gone (404/410: the user uninstalled or cleared cookies), one UPDATE each.
+     * Devices that failed or did not answer in time are thrown back as a
+     * {@link PartialPushDeliveryException} so the outbox retries just those.
+     */
+    private void awaitAndRecord(Map<String, FanOut> fanOuts) {
+        List<Long> delivered = new ArrayList<>();
+        List<Long> gone = new ArrayList<>();
+        Set<String> failed = new HashSet<>();
+        fanOuts.forEach((copy, fanOut) -> {
+            try {
+                // The engine completes the result at the fan-out timeout; the margin only guards against a stuck pool
+                PushDeliveryEngine.Result result = fanOut.result()
+                        .orTimeout(fanOutTimeoutSeconds + RESULT_MARGIN_SECONDS, TimeUnit.SECONDS).join();
+                result.delivered().forEach(sub -> delivered.add(sub.id()));
+                result.gone().forEach(sub -> gone.add(sub.id()));
+                result.failed().forEach(sub -> failed.add(copy + ":" + sub.id()));
+            } catch (CompletionException e) {
+                log.error("❌ {} copy of push did not complete: {}", copy, e.getMessage());
+                fanOut.targets().forEach(sub -> failed.add(copy + ":" + sub.id()));
+            }
+        });
+
+        if (!delivered.isEmpty()) {
+            subscriptionRepo.touchLastUsed(delivered, LocalDateTime.now());
+            log.info("✅ Push delivered to {} device(s)", delivered.size());
+        }
+        if (!gone.isEmpty()) {
+            subscriptionRepo.deactivateAll(gone);
+            evictRoleCache();
+            log.warn("🗑️ Dropped {} uninstalled/expired push subscription(s): {}", gone.size(), gone);
+        }
+        if (!failed.isEmpty()) {
+            throw new PartialPushDeliveryException(failed);
+        }
     }
 
     public void unsubscribe(String endpoint) {
@@ -296,6 +397,7 @@ public class PushNotificationService {
             PushSubscription sub = subscription.get();
             sub.setActive(false);
             subscriptionRepo.save(sub);
+            evictRoleCache();
             log.info("🔕 Unsubscribed user {} from push notifications", sub.getUser().getName());
         } else {
             log.warn("⚠️ Subscription not found for endpoint: {}", endpoint);
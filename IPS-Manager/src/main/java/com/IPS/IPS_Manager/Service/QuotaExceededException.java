@@ -0,0 +1,12 @@
+package com.IPS.IPS_Manager.Service;
+
+/**
+ * A delivery would take a project past its quota. The QUOTA_EXCEEDED failed request was written in
+ * the same transaction, so callers declare {@code dontRollbackOn} this exception to keep it.
+ */
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Enum.Role;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Copies roles from the old user_roles table into users.role_mask for users that have no mask yet.
+ * Runs once the JPA schema update has added the column and before the web server takes requests,
+ * so nobody logs in without roles. The old table is left in place (untouched) as a backup.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class RoleMaskMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        Boolean legacyTableExists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('user_roles') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacyTableExists)) return;
+
+        // CASE lower(trim(role)) WHEN 'driver' THEN 1 WHEN 'project_manager' THEN 2 ... ELSE 0 END
+        String bitForRole = Arrays.stream(Role.values())
+                .map(role -> "WHEN '" + role.getName() + "' THEN " + role.bit())
+                .collect(Collectors.joining(" ", "CASE lower(trim(r.role)) ", " ELSE 0 END"));
+
+        int migrated = jdbcTemplate.update(
+                "UPDATE users u SET role_mask = m.mask " +
+                "FROM (SELECT r.user_id, bit_or(" + bitForRole + ") AS mask FROM user_roles r GROUP BY r.user_id) m " +
+                "WHERE u.id = m.user_id AND u.role_mask = 0 AND m.mask <> 0");
+
+        if (migrated > 0) {
+            log.info("🔁 Migrated roles of {} user(s) from user_roles to users.role_mask", migrated);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Repository.MaterialRepo;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Takes material out of stock with a single conditional UPDATE, so concurrent assignments of the
+ * same material can neither oversell it nor overwrite each other's decrement.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final MaterialRepo materialRepo;
+    private final FailedRequestService failedRequestService;
+    private final LiveUpdatePublisher liveUpdatePublisher;
+
+    /**
+     * Returns false, after recording a STOCK_SHORTAGE failed request, when less than
+     * {@code quantity} is left. Stock is untouched in that case.
+     */
+    @Transactional
+    public boolean reserve(String materialId, int quantity, Long driverId, LocalDate deliveryDate) {
+        if (quantity <= 0) return true;
+
+        if (materialRepo.reserveStock(materialId, quantity) == 1) {
+            liveUpdatePublisher.materialStockChanged(materialId);
+            return true;
+        }
+
+        int available = materialRepo.findQuantityById(materialId).orElse(0);
+        failedRequestService.recordStockShortage(materialId, quantity, available, driverId, deliveryDate);
+        log.warn("⚠️ Stock shortage for material {}: requested {}, available {}", materialId, quantity, available);
+        return false;
+    }
+}
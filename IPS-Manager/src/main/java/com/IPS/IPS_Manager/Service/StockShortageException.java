@@ -0,0 +1,12 @@
+package com.IPS.IPS_Manager.Service;
+
+/**
+ * A reservation was refused for lack of stock. The STOCK_SHORTAGE failed request was written in the
+ * same transaction, so callers declare {@code dontRollbackOn} this exception to keep it.
+ */
+public class StockShortageException extends RuntimeException {
+
+    public StockShortageException(String message) {
+        super(message);
+    }
+}
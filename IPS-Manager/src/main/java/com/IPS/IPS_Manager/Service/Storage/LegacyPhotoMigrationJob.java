@@ -0,0 +1,119 @@
+package com.IPS.IPS_Manager.Service.Storage;
+
+import com.IPS.IPS_Manager.Entity.DeliveryPhoto;
+import com.IPS.IPS_Manager.Repository.DeliveryPhotoRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Moves photos still held in the delivery_photos BYTEA column into the {@link PhotoStorage},
+ * one row per transaction, on a background thread after startup.
+ * Every node runs it; each row is locked with SKIP LOCKED before copying, so a row another node is
+ * migrating is left to that node. Rows that fail are logged and skipped; they are picked up again
+ * on the next start, and the file written for a rolled-back row is deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyPhotoMigrationJob {
+
+    private final DeliveryPhotoRepo photoRepo;
+    private final PhotoStorage photoStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${photos.storage.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${photos.storage.migration-batch-size:50}")
+    private int batchSize;
+
+    private enum Outcome { MIGRATED, SKIPPED, FAILED }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        if (migrateOnStartup) {
+            Thread.ofVirtual().name("photo-migration").start(this::migrateAll);
+        }
+    }
+
+    public void migrateAll() {
+        long lastId = 0;
+        int migrated = 0;
+        int skipped = 0;
+        int failed = 0;
+
+        List<Long> ids;
+        while (!(ids = photoRepo.findLegacyPhotoIds(lastId, Limit.of(batchSize))).isEmpty()) {
+            for (Long id : ids) {
+                switch (migrate(id)) {
+                    case MIGRATED -> migrated++;
+                    case SKIPPED -> skipped++;
+                    case FAILED -> failed++;
+                }
+                lastId = id;
+            }
+        }
+
+        if (migrated > 0 || failed > 0 || skipped > 0) {
+            log.info("📦 Photo migration finished: {} moved to file storage, {} left to another node, {} failed",
+                    migrated, skipped, failed);
+        }
+    }
+
+    private Outcome migrate(Long photoId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                // Held until commit; a row locked by another node, or already migrated, is skipped
+                if (photoRepo.lockLegacyPhoto(photoId).isEmpty()) return Outcome.SKIPPED;
+                DeliveryPhoto photo = photoRepo.findById(photoId).orElse(null);
+                if (photo == null) return Outcome.SKIPPED;
+
+                StoredPhoto stored;
+                try {
+                    stored = photoStorage.store(new ByteArrayInputStream(photo.getData()));
+                } catch (Exception e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+                deleteOnRollback(photoId, stored.key());
+
+                photo.setStorageKey(stored.key());
+                photo.setContentHash(stored.contentHash());
+                photo.setFileSize(stored.size());
+                photo.setData(null);
+                photoRepo.save(photo);
+                return Outcome.MIGRATED;
+            });
+        } catch (Exception e) {
+            log.error("❌ Failed to migrate photo {} out of the database: {}", photoId, e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    // The row keeps its BYTEA copy when the transaction rolls back, so the file would be orphaned
+    private void deleteOnRollback(Long photoId, String key) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) return;
+                try {
+                    photoStorage.delete(key);
+                } catch (IOException e) {
+                    log.warn("⚠️ Could not delete file {} of rolled-back photo migration {}: {}",
+                            key, photoId, e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package com.IPS.IPS_Manager.Service.Storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Stores photos as plain files under {@code photos.storage.root}, fanned out over two levels of
+ * sub-directories (3f/a1/3fa1...) so no single directory grows too large.
+ * Uploads are written to a temp file first and moved into place, so readers never see partial files.
+ */
+@Service
+@Slf4j
+public class LocalFilePhotoStorage implements PhotoStorage {
+
+    private final Path root;
+    private final Path tmpDir;
+
+    public LocalFilePhotoStorage(@Value("${photos.storage.root:uploads/photos}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmpDir = this.root.resolve(".tmp");
+        Files.createDirectories(tmpDir);
+        log.info("📁 Photo storage root: {}", this.root);
+    }
+
+    @Override
+    public StoredPhoto store(InputStream content) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "");
+        return store(id.substring(0, 2) + "/" + id.substring(2, 4) + "/" + id, content);
+    }
+
+    @Override
+    public StoredPhoto store(String key, InputStream content) throws IOException {
+        Path target = resolve(key);
+        MessageDigest sha256 = newSha256();
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        long size;
+        try (InputStream in = new DigestInputStream(content, sha256);
+             OutputStream out = Files.newOutputStream(tmp)) {
+            size = in.transferTo(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.createDirectories(target.getParent());
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return new StoredPhoto(key, size, HexFormat.of().formatHex(sha256.digest()));
+    }
+
+    @Override
+    public Resource load(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            throw new NoSuchFileException("Stored photo not found: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage key: " + key);
+        }
+        return path;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
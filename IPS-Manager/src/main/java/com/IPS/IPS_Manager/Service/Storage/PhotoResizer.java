@@ -0,0 +1,205 @@
+package com.IPS.IPS_Manager.Service.Storage;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Downscales photos to JPEG variants with the JDK's ImageIO (no native dependencies).
+ * <p>
+ * A decoded phone photo takes tens of MB of heap, so at most {@code photos.variants.max-concurrent}
+ * resizes run at once and the decoder subsamples down to roughly the target size.
+ */
+@Component
+public class PhotoResizer {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    @Value("${photos.variants.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${photos.variants.max-concurrent:2}")
+    private int maxConcurrent;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() {
+        permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Returns the image turned upright (EXIF Orientation) and scaled so its longest edge is at most
+     * {@code maxEdge}, encoded as JPEG, or null when ImageIO cannot decode it (e.g. HEIC, CMYK JPEG,
+     * a truncated upload).
+     */
+    public byte[] resizeToJpeg(InputStream original, int maxEdge) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a resize slot");
+        }
+        try {
+            byte[] bytes = original.readAllBytes();
+            BufferedImage source = decode(bytes, maxEdge);
+            if (source == null) return null;
+            return encode(scaleUpright(source, readOrientation(bytes), maxEdge));
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Decodes every n-th pixel when the image is at least n times larger than needed;
+    // null when no reader knows the format or the reader cannot decode it (CMYK/YCCK JPEG, truncated file)
+    private static BufferedImage decode(byte[] bytes, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / maxEdge);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IIOException | IllegalArgumentException e) {
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleUpright(BufferedImage source, int orientation, int maxEdge) {
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // Orientations 5-8 swap the edges; the rotation is applied before the scale in the same draw
+        boolean swapped = orientation >= 5 && orientation <= 8;
+        BufferedImage target = new BufferedImage(swapped ? height : width, swapped ? width : height,
+                BufferedImage.TYPE_INT_RGB);
+        AffineTransform transform = orientationTransform(orientation, width, height);
+        transform.concatenate(AffineTransform.getScaleInstance(
+                (double) width / source.getWidth(), (double) height / source.getHeight()));
+
+        // JPEG has no alpha: draw onto an opaque RGB canvas
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, target.getWidth(), target.getHeight());
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Maps a width x height image onto the upright canvas for the given EXIF Orientation value.
+     */
+    private static AffineTransform orientationTransform(int orientation, int w, int h) {
+        return switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);   // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);  // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);   // mirrored vertically
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);    // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);   // rotated 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);  // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);   // rotated 90 counter-clockwise
+            default -> new AffineTransform();
+        };
+    }
+
+    /**
+     * Reads the Orientation tag from a JPEG's EXIF block (APP1, IFD0); 1 (upright) when the image
+     * is not a JPEG or carries no such tag.
+     */
+    static int readOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) return 1;
+
+        int pos = 2;
+        while (pos + 4 <= jpeg.length && (jpeg[pos] & 0xFF) == 0xFF) {
+            int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) break; // image data starts, no more metadata
+            int length = readShort(jpeg, pos + 2, false);
+            int segment = pos + 4;
+            if (marker == 0xE1 && length >= 8 && segment + 6 <= jpeg.length
+                    && jpeg[segment] == 'E' && jpeg[segment + 1] == 'x' && jpeg[segment + 2] == 'i'
+                    && jpeg[segment + 3] == 'f' && jpeg[segment + 4] == 0 && jpeg[segment + 5] == 0) {
+                return readTiffOrientation(jpeg, segment + 6, Math.min(jpeg.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int readTiffOrientation(byte[] data, int tiff, int end) {
+        if (tiff + 8 > end) return 1;
+        boolean littleEndian = data[tiff] == 'I' && data[tiff + 1] == 'I';
+
+        long ifd = tiff + (readInt(data, tiff + 4, littleEndian) & 0xFFFFFFFFL);
+        if (ifd + 2 > end) return 1;
+        int entries = readShort(data, (int) ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = (int) ifd + 2 + i * 12;
+            if (entry + 12 > end) break;
+            if (readShort(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readShort(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? b1 << 8 | b0 : b0 << 8 | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int first = readShort(data, offset, littleEndian);
+        int second = readShort(data, offset + 2, littleEndian);
+        return littleEndian ? second << 16 | first : first << 16 | second;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam params = writer.getDefaultWriteParam();
+            params.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            params.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), params);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
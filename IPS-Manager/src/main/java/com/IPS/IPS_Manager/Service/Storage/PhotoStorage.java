@@ -0,0 +1,38 @@
+package com.IPS.IPS_Manager.Service.Storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Blob store for delivery photo contents. The database only keeps the returned key and metadata.
+ */
+public interface PhotoStorage {
+
+    /**
+     * Streams the content into the store and returns where it landed, its size and SHA-256 hash.
+     */
+    StoredPhoto store(InputStream content) throws IOException;
+
+    /**
+     * Streams the content under a caller-chosen key, replacing anything already stored there.
+     * Used for derived files such as resized variants.
+     */
+    StoredPhoto store(String key, InputStream content) throws IOException;
+
+    /**
+     * Whether content is stored under the key.
+     */
+    boolean exists(String key);
+
+    /**
+     * Opens previously stored content for reading.
+     */
+    Resource load(String key) throws IOException;
+
+    /**
+     * Removes stored content. Missing keys are ignored.
+     */
+    void delete(String key) throws IOException;
+}
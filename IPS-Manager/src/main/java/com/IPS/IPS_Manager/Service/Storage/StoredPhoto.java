@@ -0,0 +1,11 @@
+package com.IPS.IPS_Manager.Service.Storage;
+
+/**
+ * Result of writing a photo into a {@link PhotoStorage}.
+ *
+ * @param key         storage-specific location, persisted on the DeliveryPhoto row
+ * @param size        number of bytes written
+ * @param contentHash lower-case hex SHA-256 of the content
+ */
+public record StoredPhoto(String key, long size, String contentHash) {
+}
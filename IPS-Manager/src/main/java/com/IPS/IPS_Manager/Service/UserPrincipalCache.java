@@ -0,0 +1,87 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.ClusterEvent;
+import com.IPS.IPS_Manager.Enum.ClusterEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of authenticated principals keyed by JWT subject (the user's mail),
+ * so authenticated requests don't reload the user every time.
+ * Entries expire after the TTL and are dropped as soon as the user is changed or deleted,
+ * on this node right away and on the other nodes through the cluster event bus.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserPrincipalCache {
+
+    private final MyUserDetailsService userDetailsService;
+    private final ClusterEventBus clusterEventBus;
+
+    @Value("${security.principal-cache.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(UserDetails principal, long expiresAt) {}
+
+    public UserDetails get(String username) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.expiresAt() < 0) {
+            return entry.principal();
+        }
+
+        UserDetails principal = userDetailsService.loadUserByUsername(username);
+        if (entries.size() >= maxSize) evict(now);
+        entries.put(username, new Entry(principal, now + ttlSeconds * 1_000_000_000L));
+        return principal;
+    }
+
+    public void invalidate(String username) {
+        if (username == null) return;
+        entries.remove(username);
+        clusterEventBus.publish(ClusterEventType.USER_UPDATED, username);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        clusterEventBus.publish(ClusterEventType.USER_UPDATED, List.of());
+    }
+
+    // Another node changed a user; no keys means it changed users in bulk
+    @EventListener(condition = "#event.type() == T(com.IPS.IPS_Manager.Enum.ClusterEventType).USER_UPDATED")
+    public void onRemoteUserUpdated(ClusterEvent event) {
+        if (event.keys().isEmpty()) {
+            entries.clear();
+        } else {
+            event.keys().forEach(entries::remove);
+        }
+    }
+
+    @EventListener
+    public void onResync(ClusterEvent.Resync resync) {
+        entries.clear();
+    }
+
+    // Drops expired entries; if the cache is still full, also the one closest to expiry
+    private void evict(long now) {
+        entries.values().removeIf(e -> now - e.expiresAt() >= 0);
+        if (entries.size() >= maxSize) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().expiresAt()))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey()));
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.IPS.IPS_Manager.Service;
 
+import com.IPS.IPS_Manager.DTO.UserView;
 import com.IPS.IPS_Manager.Entity.Users;
+import com.IPS.IPS_Manager.Enum.Role;
 import com.IPS.IPS_Manager.Repository.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -19,11 +19,20 @@ public class UserService {
     private UserRepo repo;
 
     @Autowired
-    private AuthenticationManager authManager;
+    private LoginVerifier loginVerifier;
 
     @Autowired
     private JWTService service;
 
+    @Autowired
+    private PushNotificationService pushNotificationService;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private PasswordHashingService hashingService;
+
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
 
     public Users register(Users user) {
@@ -33,9 +42,26 @@ public class UserService {
         return repo.save(user);
     }
 
+    /**
+     * Registers many users at once: passwords are hashed in parallel on the hashing pool
+     * and the rows are written with a single saveAll. Not @Transactional on purpose: the hashing
+     * takes seconds and must not hold a connection; saveAll opens its own transaction.
+     */
+    public List<Users> registerAll(List<Users> users) {
+        List<String> hashes = hashingService.encodeAll(users.stream().map(Users::getPassword).toList());
+        for (int i = 0; i < users.size(); i++) {
+            Users user = users.get(i);
+            if (hashes.get(i) != null) {
+                user.setPassword(hashes.get(i));
+            }
+        }
+        return repo.saveAll(users);
+    }
+
     // ✅ FIXED: Correctly merges the updated properties and the Set of roles
     public Users update(Long id, Users userDetails) {
         return repo.findById(id).map(user -> {
+            String previousMail = user.getMail();
 
             if (userDetails.getMail() != null && !userDetails.getMail().isEmpty()) {
                 user.setMail(userDetails.getMail());
@@ -45,9 +71,9 @@ public class UserService {
                 user.setName(userDetails.getName());
             }
 
-            // ✅ Merges multiple roles dynamically
-            if (userDetails.getRoles() != null && !userDetails.getRoles().isEmpty()) {
-                user.setRoles(userDetails.getRoles());
+            // ✅ Merges multiple roles dynamically (names were validated when the body was read)
+            if (userDetails.getRoleMask() != 0) {
+                user.setRoleMask(userDetails.getRoleMask());
             }
 
             if (userDetails.getPhone() != null && !userDetails.getPhone().isEmpty()) {
@@ -58,23 +84,25 @@ public class UserService {
                 user.setPassword(encoder.encode(userDetails.getPassword()));
             }
 
-            return repo.save(user);
+            Users saved = repo.save(user);
+            pushNotificationService.evictRoleCache();
+            principalCache.invalidate(previousMail);
+            principalCache.invalidate(saved.getMail());
+            return saved;
         }).orElseThrow(() -> new RuntimeException("User not found with id " + id));
     }
 
     public void delete(Long id) {
-        if (!repo.existsById(id)) {
-            throw new RuntimeException("User not found with id " + id);
-        }
-        repo.deleteById(id);
+        Users user = repo.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id " + id));
+        repo.delete(user);
+        pushNotificationService.evictRoleCache();
+        principalCache.invalidate(user.getMail());
     }
 
     public String verify(Users user) {
-        Authentication authentication = authManager.authenticate(
-                new UsernamePasswordAuthenticationToken(user.getMail(), user.getPassword())
-        );
-
-        if (authentication.isAuthenticated()){
+        // BCrypt runs on the login pool, not on this request thread
+        if (loginVerifier.verify(user.getMail(), user.getPassword())){
             return service.generateToken(user.getMail());
         }
         else return "fail";
@@ -84,17 +112,18 @@ public class UserService {
         return repo.findAll();
     }
 
-    public Optional<Users> getUserById(Long id) {
-        return repo.findById(id);
+    public List<UserView> getUsers(Role role, Long after, Limit limit) {
+        return role == null
+                ? repo.findPage(after, limit)
+                : repo.findPageByRoleMaskIn(role.masksContaining(), after, limit);
+    }
+
+    public Optional<UserView> getUserById(Long id) {
+        return repo.findViewById(id);
     }
 
-    // ✅ FIXED: Checks inside the Set collection to find users who have the "driver" role
-    public List<Users> getAllDrivers() {
-        return repo.findAll()
-                .stream()
-                .filter(user -> user.getRoles() != null && user.getRoles().stream()
-                        .anyMatch(role -> "driver".equalsIgnoreCase(role)))
-                .toList();
+    public List<UserView> getAllDrivers() {
+        return getUsers(Role.DRIVER, null, Limit.unlimited());
     }
 
     public Optional<Users> findByEmail(String name) {
@@ -0,0 +1,144 @@
+package com.IPS.IPS_Manager.Benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert one bulk of project_material-shaped rows the way Hibernate does it with
+ * IDENTITY ids (one INSERT ... RETURNING per row) versus pooled sequence ids (ids known up front,
+ * so rows go out as JDBC batches, optionally rewritten into multi-row INSERTs by pgjdbc).
+ * Needs a PostgreSQL database; point it at one with
+ *   -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/IPS-api -Dbench.jdbc.user=... -Dbench.jdbc.password=...
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.IPS.IPS_Manager.Benchmark.BulkInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final int BATCH_SIZE = 50; // same as hibernate.jdbc.batch_size
+
+    @Param({"500"})
+    public int rows;
+
+    private Connection identityConnection;
+    private Connection batchConnection;
+    private Connection rewriteConnection;
+    private long nextId;
+
+    @Setup
+    public void setup() throws SQLException {
+        identityConnection = connect(false);
+        batchConnection = connect(false);
+        rewriteConnection = connect(true);
+
+        try (Statement st = identityConnection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_identity");
+            st.execute("DROP TABLE IF EXISTS bench_pooled");
+            st.execute("CREATE TABLE bench_identity (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "project_id BIGINT, material_id VARCHAR(255), assigned_quantity INT, quantity_used INT)");
+            st.execute("CREATE TABLE bench_pooled (id BIGINT PRIMARY KEY, " +
+                    "project_id BIGINT, material_id VARCHAR(255), assigned_quantity INT, quantity_used INT)");
+        }
+        identityConnection.commit();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement st = identityConnection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS bench_identity");
+            st.execute("DROP TABLE IF EXISTS bench_pooled");
+        }
+        identityConnection.commit();
+        identityConnection.close();
+        batchConnection.close();
+        rewriteConnection.close();
+    }
+
+    @Benchmark
+    public long identityRowByRow() throws SQLException {
+        long last = 0;
+        try (PreparedStatement ps = identityConnection.prepareStatement(
+                "INSERT INTO bench_identity (project_id, material_id, assigned_quantity, quantity_used) " +
+                        "VALUES (?, ?, ?, 0)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < rows; i++) {
+                ps.setLong(1, 1);
+                ps.setString(2, "M-" + i);
+                ps.setInt(3, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        identityConnection.commit();
+        return last;
+    }
+
+    @Benchmark
+    public int pooledBatched() throws SQLException {
+        return insertPooled(batchConnection);
+    }
+
+    @Benchmark
+    public int pooledBatchedRewritten() throws SQLException {
+        return insertPooled(rewriteConnection);
+    }
+
+    private int insertPooled(Connection connection) throws SQLException {
+        int written = 0;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO bench_pooled (id, project_id, material_id, assigned_quantity, quantity_used) " +
+                        "VALUES (?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < rows; i++) {
+                ps.setLong(1, ++nextId);
+                ps.setLong(2, 1);
+                ps.setString(3, "M-" + i);
+                ps.setInt(4, i);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    written += ps.executeBatch().length;
+                }
+            }
+            written += ps.executeBatch().length;
+        }
+        connection.commit();
+        return written;
+    }
+
+    private static Connection connect(boolean rewriteBatchedInserts) throws SQLException {
+        String url = System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/IPS-api");
+        url += (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=" + rewriteBatchedInserts;
+        Connection connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "postgres"),
+                System.getProperty("bench.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // The fork doesn't inherit system properties, hand the connection settings over explicitly
+        new Runner(new OptionsBuilder()
+                .include(BulkInsertBenchmark.class.getSimpleName())
+                .jvmArgsAppend(
+                        "-Dbench.jdbc.url=" + System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/IPS-api"),
+                        "-Dbench.jdbc.user=" + System.getProperty("bench.jdbc.user", "postgres"),
+                        "-Dbench.jdbc.password=" + System.getProperty("bench.jdbc.password", ""))
+                .build()).run();
+    }
+}
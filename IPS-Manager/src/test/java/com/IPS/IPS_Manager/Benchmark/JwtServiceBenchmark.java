@@ -0,0 +1,57 @@
+package com.IPS.IPS_Manager.Benchmark;
+
+import com.IPS.IPS_Manager.Service.JWTService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of token signing and verification in JWTService.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.IPS.IPS_Manager.Benchmark.JwtServiceBenchmark
+ * (or straight from the IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JWTService(Jwts.SIG.HS256.key().build());
+        token = jwtService.generateToken("bench@ips.local");
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generateToken("bench@ips.local");
+    }
+
+    @Benchmark
+    public Claims validate() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Claims validateContended() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
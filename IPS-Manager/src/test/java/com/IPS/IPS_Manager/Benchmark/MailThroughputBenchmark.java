@@ -0,0 +1,92 @@
+package com.IPS.IPS_Manager.Benchmark;
+
+import com.IPS.IPS_Manager.Service.LocalSmtpServer;
+import com.IPS.IPS_Manager.Service.MailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to send one burst of mails through LocalSmtpServer, which adds {@code sessionDelayMs} per
+ * connection (a real server's TCP + STARTTLS + AUTH handshake) and {@code commandDelayMs} per reply.
+ * Compares one session per mail, as MailService used to do, with the queued MailService that
+ * sends a burst over one session.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.IPS.IPS_Manager.Benchmark.MailThroughputBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MailThroughputBenchmark {
+
+    @Param({"50"})
+    public int mails;
+
+    @Param({"30"})
+    public long sessionDelayMs;
+
+    @Param({"1"})
+    public long commandDelayMs;
+
+    private LocalSmtpServer smtp;
+    private JavaMailSenderImpl sender;
+    private MailService mailService;
+
+    @Setup
+    public void setup() throws IOException {
+        smtp = new LocalSmtpServer(sessionDelayMs, commandDelayMs);
+        sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.port());
+
+        mailService = new MailService(sender, new SimpleMeterRegistry(), "bench@ips.local", 1000, 50, 10, 1, 60_000);
+        mailService.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        mailService.stop();
+        smtp.close();
+    }
+
+    @Benchmark
+    public int sessionPerMail() {
+        for (int i = 0; i < mails; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("bench@ips.local");
+            message.setTo("driver" + i + "@ips.local");
+            message.setSubject("Delivery update");
+            message.setText("Your assigned delivery target status has changed to: SENT.");
+            sender.send(message);
+        }
+        return mails;
+    }
+
+    @Benchmark
+    public int queuedBurst() {
+        CompletableFuture<?>[] sent = new CompletableFuture<?>[mails];
+        for (int i = 0; i < mails; i++) {
+            sent[i] = mailService.submit("driver" + i + "@ips.local", "Delivery update",
+                    "Your assigned delivery target status has changed to: SENT.");
+        }
+        CompletableFuture.allOf(sent).join();
+        return mails;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MailThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,94 @@
+package com.IPS.IPS_Manager.Benchmark;
+
+import com.IPS.IPS_Manager.DTO.PushTarget;
+import com.IPS.IPS_Manager.Service.LocalPushEndpoint;
+import com.IPS.IPS_Manager.Service.PushDeliveryEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.martijndwars.webpush.Notification;
+import nl.martijndwars.webpush.PushService;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to push one notification to {@code devices} subscriptions on LocalPushEndpoint, which
+ * answers after {@code latencyMs} like a remote push service would.
+ * Compares the old path (PushService.send, encrypt and POST one device after another) with
+ * PushDeliveryEngine (encryption on all cores, concurrent delivery capped per push service).
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.IPS.IPS_Manager.Benchmark.PushFanOutBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PushFanOutBenchmark {
+
+    private static final byte[] PAYLOAD =
+            "{\"title\":\"📦 Delivery Completed\",\"body\":\"Delivery to Vake Tower completed\"}".getBytes();
+
+    @Param({"500"})
+    public int devices;
+
+    @Param({"10"})
+    public long latencyMs;
+
+    private LocalPushEndpoint endpoint;
+    private PushService pushService;
+    private PushDeliveryEngine engine;
+    private List<PushTarget> subscriptions;
+
+    @Setup
+    public void setup() throws Exception {
+        Security.addProvider(new BouncyCastleProvider());
+        endpoint = new LocalPushEndpoint(latencyMs);
+
+        LocalPushEndpoint.Keys vapid = LocalPushEndpoint.vapidKeys();
+        pushService = new PushService();
+        pushService.setPublicKey(vapid.publicKey());
+        pushService.setPrivateKey(vapid.privateKey());
+        pushService.setSubject("mailto:bench@ips.local");
+        engine = new PushDeliveryEngine(new SimpleMeterRegistry(), 0, 32, 10_000);
+        engine.start();
+        engine.configure(vapid.publicKey(), vapid.privateKey(), "mailto:bench@ips.local");
+
+        subscriptions = new ArrayList<>(devices);
+        for (int i = 0; i < devices; i++) {
+            subscriptions.add(LocalPushEndpoint.subscription(i, endpoint.url("/push/" + i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.stop();
+        endpoint.close();
+    }
+
+    @Benchmark
+    public int sequential() throws Exception {
+        for (PushTarget sub : subscriptions) {
+            pushService.send(new Notification(sub.endpoint(), sub.p256dh(), sub.auth(), PAYLOAD));
+        }
+        return subscriptions.size();
+    }
+
+    @Benchmark
+    public int twoStage() throws Exception {
+        return engine.deliver(subscriptions, PAYLOAD).get(60, TimeUnit.SECONDS).delivered().size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PushFanOutBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
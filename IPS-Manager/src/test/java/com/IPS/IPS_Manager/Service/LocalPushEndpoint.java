@@ -0,0 +1,135 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.PushTarget;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stand-in push service for tests and benchmarks. It accepts POSTs on any path with 201 after
+ * {@code latencyMs}, and answers 410 for paths under /gone/ (an unsubscribed device). It counts
+ * requests and the highest number it had in flight at once.
+ * Also creates VAPID keys and browser-side subscription keys, since real ones can't be used here.
+ */
+public class LocalPushEndpoint implements AutoCloseable {
+
+    public record Keys(String publicKey, String privateKey) {}
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final HttpServer server;
+    private final long latencyMs;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<String> contentEncodings = new CopyOnWriteArrayList<>();
+
+    public LocalPushEndpoint(long latencyMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1000);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.start();
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    public List<String> contentEncodings() {
+        return List.copyOf(contentEncodings);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            contentEncodings.add(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            if (latencyMs > 0) Thread.sleep(latencyMs);
+            requests.incrementAndGet();
+
+            int status = exchange.getRequestURI().getPath().startsWith("/gone/") ? 410 : 201;
+            exchange.sendResponseHeaders(status, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    /**
+     * A subscription as a browser would register it: P-256 public key and 16-byte auth secret.
+     */
+    public static PushTarget subscription(long id, String endpoint) throws GeneralSecurityException {
+        KeyPair keyPair = newKeyPair();
+        byte[] auth = new byte[16];
+        RANDOM.nextBytes(auth);
+
+        return new PushTarget(id, endpoint, base64(encodePublic((ECPublicKey) keyPair.getPublic())), base64(auth));
+    }
+
+    public static Keys vapidKeys() throws GeneralSecurityException {
+        KeyPair keyPair = newKeyPair();
+        return new Keys(base64(encodePublic((ECPublicKey) keyPair.getPublic())),
+                base64(fixed(((ECPrivateKey) keyPair.getPrivate()).getS(), 32)));
+    }
+
+    private static KeyPair newKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"), RANDOM);
+        return generator.generateKeyPair();
+    }
+
+    // Uncompressed point: 0x04 | X | Y
+    private static byte[] encodePublic(ECPublicKey key) {
+        byte[] encoded = new byte[65];
+        encoded[0] = 0x04;
+        System.arraycopy(fixed(key.getW().getAffineX(), 32), 0, encoded, 1, 32);
+        System.arraycopy(fixed(key.getW().getAffineY(), 32), 0, encoded, 33, 32);
+        return encoded;
+    }
+
+    private static byte[] fixed(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        byte[] out = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, out, length - copy, copy);
+        return out;
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
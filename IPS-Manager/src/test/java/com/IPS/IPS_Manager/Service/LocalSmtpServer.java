@@ -0,0 +1,159 @@
+package com.IPS.IPS_Manager.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests and benchmarks: EHLO/HELO, MAIL, RCPT, DATA, RSET,
+ * NOOP and QUIT, no TLS or AUTH. It keeps what it received and counts sessions.
+ * <p>
+ * {@code sessionDelayMs} is added before the greeting to stand in for the TCP + STARTTLS + AUTH
+ * handshake of a real server, {@code commandDelayMs} to every reply as network round-trip.
+ * Recipients starting with "bounce@" are refused with 550.
+ */
+public class LocalSmtpServer implements AutoCloseable {
+
+    public record Received(String from, List<String> recipients, String data) {}
+
+    private final ServerSocket serverSocket;
+    private final long sessionDelayMs;
+    private final long commandDelayMs;
+    private final List<Received> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private volatile boolean running = true;
+
+    public LocalSmtpServer(long sessionDelayMs, long commandDelayMs) throws IOException {
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        this.sessionDelayMs = sessionDelayMs;
+        this.commandDelayMs = commandDelayMs;
+        Thread.ofPlatform().name("local-smtp-accept").daemon().start(this::accept);
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<Received> received() {
+        return List.copyOf(received);
+    }
+
+    public int sessions() {
+        return sessions.get();
+    }
+
+    public void reset() {
+        received.clear();
+        sessions.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofPlatform().name("local-smtp-session").daemon().start(() -> session(socket));
+            } catch (IOException e) {
+                if (running) throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void session(Socket socket) {
+        sessions.incrementAndGet();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             OutputStream out = socket.getOutputStream()) {
+
+            pause(sessionDelayMs);
+            reply(out, "220 localhost ESMTP test stand-in");
+
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250-8BITMIME\r\n250 SMTPUTF8");
+                    case "HELO" -> reply(out, "250 localhost");
+                    case "MAIL" -> {
+                        from = address(line);
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "RCPT" -> {
+                        String recipient = address(line);
+                        if (recipient.startsWith("bounce@")) {
+                            reply(out, "550 No such user");
+                        } else {
+                            recipients.add(recipient);
+                            reply(out, "250 OK");
+                        }
+                    }
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        received.add(new Received(from, List.copyOf(recipients), readData(in)));
+                        reply(out, "250 OK queued");
+                    }
+                    case "RSET" -> {
+                        from = null;
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    }
+                    case "NOOP" -> reply(out, "250 OK");
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // client went away
+        }
+    }
+
+    private static String readData(BufferedReader in) throws IOException {
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            data.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+        }
+        return data.toString();
+    }
+
+    private static String address(String line) {
+        int open = line.indexOf('<');
+        int close = line.indexOf('>', open + 1);
+        return open >= 0 && close > open ? line.substring(open + 1, close) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    private void reply(OutputStream out, String reply) throws IOException {
+        pause(commandDelayMs);
+        out.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void pause(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.IPS.IPS_Manager.Service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.SendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MailService against LocalSmtpServer: bursts share one SMTP session, a refused recipient only
+ * fails its own mail, and templates render into the sent body.
+ */
+@Timeout(60)
+class MailServiceTest {
+
+    private LocalSmtpServer smtp;
+    private SimpleMeterRegistry meterRegistry;
+    private MailService mailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new LocalSmtpServer(0, 0);
+
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.port());
+
+        meterRegistry = new SimpleMeterRegistry();
+        mailService = new MailService(sender, meterRegistry, "dispatch@ips.local", 100, 50, 50, 1, 10_000);
+        mailService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mailService.stop();
+        smtp.close();
+    }
+
+    @Test
+    void burstIsSentOverOneSession() {
+        List<CompletableFuture<Void>> sent = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            sent.add(mailService.submit("driver" + i + "@ips.local", "Update " + i, "Body " + i));
+        }
+        CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+
+        assertThat(smtp.received()).hasSize(20);
+        assertThat(smtp.sessions()).isLessThanOrEqualTo(2);
+        assertThat(meterRegistry.get("mail.send.latency").timer().count()).isEqualTo(20);
+    }
+
+    @Test
+    void refusedRecipientOnlyFailsItsOwnMail() {
+        CompletableFuture<Void> good = mailService.submit("manager@ips.local", "Done", "Delivered");
+        CompletableFuture<Void> bad = mailService.submit("bounce@ips.local", "Done", "Delivered");
+
+        good.orTimeout(30, TimeUnit.SECONDS).join();
+        assertThatThrownBy(() -> bad.orTimeout(30, TimeUnit.SECONDS).join())
+                .hasCauseInstanceOf(SendFailedException.class);
+        assertThat(smtp.received()).extracting(LocalSmtpServer.Received::recipients)
+                .containsExactly(List.of("manager@ips.local"));
+        assertThat(meterRegistry.get("mail.send.failed").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void sendMailThrowsWhenTheServerRefuses() {
+        assertThatThrownBy(() -> mailService.sendMail("bounce@ips.local", "Hi", "Body"))
+                .isInstanceOf(MailSendException.class);
+    }
+
+    @Test
+    void templateIsRenderedIntoTheBody() {
+        mailService.sendMail("driver@ips.local", MailService.ASSIGNMENT_STATUS_CHANGED,
+                MailTemplate.values("driver", "Nika", "status", "SENT"));
+
+        assertThat(smtp.received()).singleElement().satisfies(mail -> {
+            assertThat(mail.from()).isEqualTo("dispatch@ips.local");
+            assertThat(mail.data()).contains("Hello Nika,", "status has changed to: SENT.");
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.DTO.PushTarget;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PushDeliveryEngine against LocalPushEndpoint: every device gets an aes128gcm message,
+ * unsubscribed devices are reported, and the per-origin concurrency cap holds.
+ */
+class PushDeliveryEngineTest {
+
+    private static final byte[] PAYLOAD = "{\"title\":\"Delivery Completed\"}".getBytes();
+
+    private LocalPushEndpoint endpoint;
+    private PushDeliveryEngine engine;
+
+    @BeforeAll
+    static void registerProvider() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.stop();
+        endpoint.close();
+    }
+
+    @Test
+    void deliversToEveryDevice() throws Exception {
+        start(0, 16);
+        List<PushTarget> devices = devices(100, "/push/");
+
+        PushDeliveryEngine.Result result = engine.deliver(devices, PAYLOAD).get(30, TimeUnit.SECONDS);
+
+        assertThat(result.delivered()).hasSize(100);
+        assertThat(result.gone()).isEmpty();
+        assertThat(result.failed()).isEmpty();
+        assertThat(endpoint.requests()).isEqualTo(100);
+        assertThat(endpoint.contentEncodings()).containsOnly("aes128gcm");
+    }
+
+    @Test
+    void reportsUnsubscribedDevices() throws Exception {
+        start(0, 16);
+        List<PushTarget> devices = new ArrayList<>(devices(3, "/push/"));
+        devices.add(LocalPushEndpoint.subscription(99, endpoint.url("/gone/99")));
+
+        PushDeliveryEngine.Result result = engine.deliver(devices, PAYLOAD).get(30, TimeUnit.SECONDS);
+
+        assertThat(result.delivered()).hasSize(3);
+        assertThat(result.gone()).extracting(PushTarget::id).containsExactly(99L);
+    }
+
+    @Test
+    void capsConcurrentRequestsPerPushService() throws Exception {
+        start(20, 4);
+
+        engine.deliver(devices(40, "/push/"), PAYLOAD).get(30, TimeUnit.SECONDS);
+
+        assertThat(endpoint.requests()).isEqualTo(40);
+        assertThat(endpoint.maxInFlight()).isLessThanOrEqualTo(4);
+    }
+
+    private void start(long latencyMs, int maxConcurrencyPerOrigin) throws Exception {
+        endpoint = new LocalPushEndpoint(latencyMs);
+        engine = new PushDeliveryEngine(new SimpleMeterRegistry(), 2, maxConcurrencyPerOrigin, 5_000);
+        engine.start();
+
+        LocalPushEndpoint.Keys vapid = LocalPushEndpoint.vapidKeys();
+        engine.configure(vapid.publicKey(), vapid.privateKey(), "mailto:test@ips.local");
+    }
+
+    private List<PushTarget> devices(int count, String path) throws Exception {
+        List<PushTarget> devices = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            devices.add(LocalPushEndpoint.subscription(i, endpoint.url(path + i)));
+        }
+        return devices;
+    }
+}
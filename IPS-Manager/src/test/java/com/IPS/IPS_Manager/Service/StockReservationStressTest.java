@@ -0,0 +1,99 @@
+package com.IPS.IPS_Manager.Service;
+
+import com.IPS.IPS_Manager.Entity.FailedRequest;
+import com.IPS.IPS_Manager.Entity.Material;
+import com.IPS.IPS_Manager.Enum.FailedRequestType;
+import com.IPS.IPS_Manager.Repository.FailedRequestRepo;
+import com.IPS.IPS_Manager.Repository.MaterialRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many threads reserving one hot material at once: stock must end at exactly zero, every unit
+ * handed out once, and every refused reservation recorded as a STOCK_SHORTAGE.
+ * Runs against the configured database, so it is opt-in: mvn test -Dstress=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "stress", matches = "true")
+class StockReservationStressTest {
+
+    private static final int STOCK = 1_000;
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private MaterialRepo materialRepo;
+
+    @Autowired
+    private FailedRequestRepo failedRequestRepo;
+
+    private String materialId;
+
+    @BeforeEach
+    void createHotMaterial() {
+        materialId = "STRESS-" + UUID.randomUUID();
+        materialRepo.save(new Material(materialId, "Stress test material", "pcs", STOCK));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        failedRequestRepo.deleteAll(shortagesOfMaterial());
+        materialRepo.deleteById(materialId);
+    }
+
+    @Test
+    void concurrentReservationsNeverOversellOrLoseUpdates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                int reserved = 0;
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (stockReservationService.reserve(materialId, 1, null, null)) {
+                        reserved++;
+                    }
+                }
+                return reserved;
+            }));
+        }
+
+        start.countDown();
+        int reserved = 0;
+        for (Future<Integer> result : results) {
+            reserved += result.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        assertThat(reserved).isEqualTo(STOCK);
+        assertThat(materialRepo.findQuantityById(materialId)).contains(0);
+        assertThat(shortagesOfMaterial()).hasSize(attempts - STOCK);
+    }
+
+    private List<FailedRequest> shortagesOfMaterial() {
+        return failedRequestRepo.findByType(FailedRequestType.STOCK_SHORTAGE).stream()
+                .filter(f -> materialId.equals(f.getMaterialId()))
+                .toList();
+    }
+}